@@ -0,0 +1,52 @@
+package com.thompson.bullrun.common;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures LTTB downsampling of a random-walk price series to a chart-sized budget.
+ * Run with ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DownsamplerBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int points;
+
+    @Param({"500"})
+    private int maxPoints;
+
+    private long[] dates;
+    private double[] values;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        dates = new long[points];
+        values = new double[points];
+        long date = 1_500_000_000_000L;
+        double value = 10_000;
+        for (int i = 0; i < points; i++) {
+            date += 86_400_000L;
+            value = Math.max(0, value + random.nextGaussian() * 50);
+            dates[i] = date;
+            values[i] = value;
+        }
+    }
+
+    @Benchmark
+    public int[] lttb() {
+        return Downsampler.lttb(dates, values, points, maxPoints);
+    }
+}
@@ -0,0 +1,72 @@
+package com.thompson.bullrun.common;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Measures the per-holding statistics of a portfolio analysis, evaluated in parallel on the common pool the way
+ * PortfolioAnalyticsService does, for 500 holdings over ten years of trading days.
+ * Run with ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ReturnsMathBenchmark {
+
+    @Param({"500"})
+    private int holdings;
+
+    @Param({"2520"})
+    private int days;
+
+    private int[] axis;
+    private int[][] barDays;
+    private double[][] closes;
+    private double[] benchmarkReturns;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        axis = IntStream.range(0, days).toArray();
+        barDays = new int[holdings][];
+        closes = new double[holdings][];
+        for (int h = 0; h < holdings; h++) {
+            barDays[h] = axis;
+            closes[h] = randomWalk(random);
+        }
+        benchmarkReturns = ReturnsMath.dailyReturns(randomWalk(random));
+    }
+
+    @Benchmark
+    public double analyze() {
+        return IntStream.range(0, holdings).parallel()
+                .mapToDouble(h -> {
+                    double[] returns = ReturnsMath.dailyReturns(ReturnsMath.alignCloses(axis, barDays[h], closes[h]));
+                    double[] rolling = ReturnsMath.rollingVolatility(returns, 21);
+                    return ReturnsMath.compound(returns) + ReturnsMath.volatility(returns) + rolling[rolling.length - 1]
+                            + ReturnsMath.maxDrawdown(returns) + ReturnsMath.beta(returns, benchmarkReturns)
+                            + ReturnsMath.sharpe(returns, 0.04);
+                })
+                .sum();
+    }
+
+    private double[] randomWalk(Random random) {
+        double[] prices = new double[days];
+        double price = 100;
+        for (int i = 0; i < days; i++) {
+            price = Math.max(1, price * (1 + random.nextGaussian() * 0.02));
+            prices[i] = price;
+        }
+        return prices;
+    }
+}
@@ -0,0 +1,86 @@
+package com.thompson.bullrun.common;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares valuing and formatting a portfolio with the previous BigDecimal and per-call DecimalFormat code against
+ * ValuationKernel and PriceFormatter. Add -prof gc to the JMH arguments to compare allocation rates.
+ * Run with ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ValuationBenchmark {
+
+    @Param({"500"})
+    private int holdings;
+
+    private double[] prices;
+    private int[] shares;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        prices = new double[holdings];
+        shares = new int[holdings];
+        for (int i = 0; i < holdings; i++) {
+            prices[i] = random.nextInt(100_000_000) / 10_000.0;
+            shares[i] = 1 + random.nextInt(10_000);
+        }
+    }
+
+    @Benchmark
+    public double bigDecimalValuation(Blackhole blackhole) {
+        double total = 0;
+        for (int i = 0; i < holdings; i++) {
+            BigDecimal closePrice = BigDecimal.valueOf(prices[i]).setScale(2, RoundingMode.HALF_UP);
+            BigDecimal currentValue = closePrice.multiply(BigDecimal.valueOf(shares[i])).setScale(2, RoundingMode.HALF_UP);
+            blackhole.consume(closePrice.doubleValue());
+            total += currentValue.doubleValue();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public double kernelValuation(Blackhole blackhole) {
+        long total = 0;
+        for (int i = 0; i < holdings; i++) {
+            long closePrice = ValuationKernel.toMicros(prices[i], 2);
+            blackhole.consume(ValuationKernel.toDouble(closePrice));
+            total = Math.addExact(total, ValuationKernel.value(closePrice, shares[i], 2));
+        }
+        return ValuationKernel.toDouble(total);
+    }
+
+    @Benchmark
+    public void decimalFormatPerCall(Blackhole blackhole) {
+        for (int i = 0; i < holdings; i++) {
+            DecimalFormat decimalFormat = new DecimalFormat("#,##0.00", new DecimalFormatSymbols(Locale.US));
+            decimalFormat.setRoundingMode(RoundingMode.HALF_UP);
+            blackhole.consume(decimalFormat.format(prices[i]));
+        }
+    }
+
+    @Benchmark
+    public void priceFormatter(Blackhole blackhole) {
+        for (int i = 0; i < holdings; i++) {
+            blackhole.consume(PriceFormatter.format(prices[i]));
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.thompson.bullrun.services;
+
+import com.thompson.bullrun.entities.BarSeries;
+import com.thompson.bullrun.entities.DailyBarBucketEntity;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Compares a full-history close-price scan of many symbols from the local bar cache against the Mongo read path.
+ * The Mongo side starts from the raw BSON of every monthly bucket, so it measures decoding, mapping and flattening but
+ * not the network transfer a real query adds on top.
+ * Run with ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class LocalBarCacheBenchmark {
+
+    @Param({"100"})
+    private int symbols;
+
+    @Param({"1", "10"})
+    private int years;
+
+    private MappingMongoConverter converter;
+    private List<List<RawBsonDocument>> bucketsBySymbol;
+    private List<BarFile> files;
+    private Path directory;
+    private int fromDay;
+    private int toDay;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        MongoMappingContext context = new MongoMappingContext();
+        context.afterPropertiesSet();
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, context);
+        converter.afterPropertiesSet();
+
+        directory = Files.createTempDirectory("bar-cache-bench");
+        bucketsBySymbol = new ArrayList<>();
+        files = new ArrayList<>();
+        LocalDate end = LocalDate.of(2024, 12, 31);
+        LocalDate start = end.minusYears(years).plusDays(1);
+        fromDay = (int) start.toEpochDay();
+        toDay = (int) end.toEpochDay();
+        Random random = new Random(42);
+
+        for (int s = 0; s < symbols; s++) {
+            String symbol = "SYM" + s;
+            List<RawBsonDocument> buckets = new ArrayList<>();
+            List<Integer> days = new ArrayList<>();
+            for (YearMonth month = YearMonth.from(start); !month.isAfter(YearMonth.from(end)); month = month.plusMonths(1)) {
+                int first = (int) month.atDay(1).toEpochDay();
+                int last = (int) month.atEndOfMonth().toEpochDay();
+                List<Integer> monthDays = new ArrayList<>();
+                for (int day = first; day <= last; day++) {
+                    if (LocalDate.ofEpochDay(day).getDayOfWeek().getValue() <= 5) {
+                        monthDays.add(day);
+                    }
+                }
+                DailyBarBucketEntity bucket = bucket(symbol, month, monthDays, random);
+                Document document = new Document();
+                converter.write(bucket, document);
+                buckets.add(new RawBsonDocument(document, new DocumentCodec()));
+                days.addAll(monthDays);
+            }
+            bucketsBySymbol.add(buckets);
+
+            List<DailyBarBucketEntity> decoded = buckets.stream().map(this::decode).toList();
+            BarSeries series = DailyBarStore.toSeries(symbol, decoded, fromDay, toDay);
+            files.add(BarFile.write(directory.resolve(symbol + ".bars"), series));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public double mongoDecode() {
+        double sum = 0;
+        for (int s = 0; s < bucketsBySymbol.size(); s++) {
+            List<DailyBarBucketEntity> buckets = new ArrayList<>();
+            for (RawBsonDocument raw : bucketsBySymbol.get(s)) {
+                buckets.add(decode(raw));
+            }
+            BarSeries series = DailyBarStore.toSeries("SYM" + s, buckets, fromDay, toDay);
+            for (double close : series.getClose()) {
+                sum += close;
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double cacheScan() {
+        double[] sum = new double[1];
+        for (BarFile file : files) {
+            file.scan(fromDay, toDay, (day, open, high, low, close, volume) -> sum[0] += close);
+        }
+        return sum[0];
+    }
+
+    @Benchmark
+    public double cacheRead() {
+        double sum = 0;
+        for (int s = 0; s < files.size(); s++) {
+            for (double close : files.get(s).read("SYM" + s, fromDay, toDay).getClose()) {
+                sum += close;
+            }
+        }
+        return sum;
+    }
+
+    private DailyBarBucketEntity decode(RawBsonDocument raw) {
+        return converter.read(DailyBarBucketEntity.class, raw.decode(new DocumentCodec()));
+    }
+
+    private static DailyBarBucketEntity bucket(String symbol, YearMonth month, List<Integer> days, Random random) {
+        int n = days.size();
+        int[] dayArray = new int[n];
+        double[] open = new double[n];
+        double[] high = new double[n];
+        double[] low = new double[n];
+        double[] close = new double[n];
+        long[] volume = new long[n];
+        for (int i = 0; i < n; i++) {
+            double price = 100 + random.nextGaussian() * 5;
+            dayArray[i] = days.get(i);
+            open[i] = price;
+            high[i] = price + 1;
+            low[i] = price - 1;
+            close[i] = price + random.nextGaussian();
+            volume[i] = 1_000_000L + random.nextInt(1_000_000);
+        }
+        return new DailyBarBucketEntity(symbol + ":" + month, symbol, month.toString(), dayArray, open, high, low, close, volume);
+    }
+}
@@ -24,6 +24,10 @@ public class BufferingClientHttpResponseWrapper implements ClientHttpResponse {
         return new ByteArrayInputStream(body);
     }
 
+    public byte[] getBodyBytes() {
+        return body;
+    }
+
     @Override
     public HttpStatus getStatusCode() throws IOException {
         return (HttpStatus) response.getStatusCode();
@@ -0,0 +1,80 @@
+package com.thompson.bullrun.common;
+
+/**
+ * Largest-Triangle-Three-Buckets downsampling for chart series.
+ * Works on parallel primitive arrays and returns the indices of the points to keep, so the only allocation is the result.
+ * The first and last points are always kept; in between, each bucket keeps the point that forms the largest triangle
+ * with the previously kept point and the average of the next bucket, which preserves peaks and troughs.
+ */
+public final class Downsampler {
+
+    private Downsampler() {
+    }
+
+    /**
+     * Picks at most {@code threshold} points out of the first {@code length} points of the series.
+     *
+     * @param x         x values in ascending order, e.g. epoch millis
+     * @param y         y values
+     * @param length    number of points to consider from the start of the arrays
+     * @param threshold maximum number of points to keep, at least 3
+     * @return ascending indices of the kept points; all indices when the series already fits
+     */
+    public static int[] lttb(long[] x, double[] y, int length, int threshold) {
+        if (length > x.length || length > y.length) {
+            throw new IllegalArgumentException("length exceeds the series arrays");
+        }
+        if (threshold < 3) {
+            throw new IllegalArgumentException("threshold must be at least 3");
+        }
+        if (length <= threshold) {
+            int[] all = new int[length];
+            for (int i = 0; i < length; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+
+        int[] sampled = new int[threshold];
+        double bucketSize = (double) (length - 2) / (threshold - 2);
+        // Work relative to the first x so epoch millis do not lose precision in the area products
+        long origin = x[0];
+        int selected = 0;
+        int count = 0;
+        sampled[count++] = 0;
+
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            int nextStart = (int) ((bucket + 1) * bucketSize) + 1;
+            int nextEnd = Math.min((int) ((bucket + 2) * bucketSize) + 1, length);
+            double avgX = 0;
+            double avgY = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                avgX += x[i] - origin;
+                avgY += y[i];
+            }
+            int nextLength = nextEnd - nextStart;
+            avgX /= nextLength;
+            avgY /= nextLength;
+
+            int start = (int) (bucket * bucketSize) + 1;
+            int end = nextStart;
+            double ax = x[selected] - origin;
+            double ay = y[selected];
+            double maxArea = -1;
+            int best = start;
+            for (int i = start; i < end; i++) {
+                // Twice the triangle area; the factor does not change which point wins
+                double area = Math.abs((ax - avgX) * (y[i] - ay) - (ax - (x[i] - origin)) * (avgY - ay));
+                if (area > maxArea) {
+                    maxArea = area;
+                    best = i;
+                }
+            }
+            sampled[count++] = best;
+            selected = best;
+        }
+
+        sampled[count] = length - 1;
+        return sampled;
+    }
+}
@@ -0,0 +1,88 @@
+package com.thompson.bullrun.common;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Writes query results to the response one element at a time instead of building a list first.
+ * The source stream is opened when the response body is written and closed afterwards, so a Mongo cursor is held only
+ * for the duration of the response. Output is flushed every {@value #FLUSH_EVERY} elements, which bounds the buffered
+ * bytes regardless of the result size.
+ */
+public final class JsonStreams {
+
+    public static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private static final int FLUSH_EVERY = 256;
+
+    private JsonStreams() {
+    }
+
+    /**
+     * Output formats of a streamed response.
+     */
+    public enum Format {
+        /** A single JSON array, the same document the non-streaming endpoint returns. */
+        JSON,
+        /** Newline-delimited JSON, one element per line. */
+        NDJSON;
+
+        public static Format parse(String value) {
+            try {
+                return Format.valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown stream format: " + value + ". Use json or ndjson.");
+            }
+        }
+    }
+
+    /**
+     * Builds a streamed response in the given format.
+     *
+     * @param format output format
+     * @param source opens the stream of elements; called once, on the thread writing the response
+     * @param mapper mapper used to serialize the elements
+     */
+    public static <T> ResponseEntity<StreamingResponseBody> response(Format format, Supplier<Stream<T>> source, ObjectMapper mapper) {
+        MediaType contentType = format == Format.NDJSON ? APPLICATION_NDJSON : MediaType.APPLICATION_JSON;
+        return ResponseEntity.ok().contentType(contentType).body(out -> write(out, format, source, mapper));
+    }
+
+    private static <T> void write(OutputStream out, Format format, Supplier<Stream<T>> source, ObjectMapper mapper) throws IOException {
+        // Flushing is driven by the element count below rather than after every value
+        ObjectWriter writer = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (Stream<T> elements = source.get();
+             JsonGenerator generator = mapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            generator.setRootValueSeparator(null);
+            if (format == Format.JSON) {
+                generator.writeStartArray();
+            }
+            int written = 0;
+            for (Iterator<T> it = elements.iterator(); it.hasNext(); ) {
+                writer.writeValue(generator, it.next());
+                if (format == Format.NDJSON) {
+                    generator.writeRaw('\n');
+                }
+                if (++written % FLUSH_EVERY == 0) {
+                    generator.flush();
+                }
+            }
+            if (format == Format.JSON) {
+                generator.writeEndArray();
+            }
+        }
+    }
+}
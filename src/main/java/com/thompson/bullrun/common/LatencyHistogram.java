@@ -0,0 +1,80 @@
+package com.thompson.bullrun.common;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free latency histogram with fixed exponential buckets from 50 microseconds to 10 seconds.
+ * Percentiles are reported as the upper bound of the bucket they fall into.
+ */
+public class LatencyHistogram {
+
+    private static final long[] BUCKET_UPPER_BOUNDS_MICROS = {
+            50, 100, 250, 500, 1_000, 2_500, 5_000, 10_000, 25_000, 50_000,
+            100_000, 250_000, 500_000, 1_000_000, 2_500_000, 5_000_000, 10_000_000, Long.MAX_VALUE
+    };
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_UPPER_BOUNDS_MICROS.length);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalMicros = new LongAdder();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    public void record(long duration, TimeUnit unit) {
+        long micros = Math.max(0, unit.toMicros(duration));
+        int bucket = 0;
+        while (micros > BUCKET_UPPER_BOUNDS_MICROS[bucket]) {
+            bucket++;
+        }
+        counts.incrementAndGet(bucket);
+        count.increment();
+        totalMicros.add(micros);
+        maxMicros.accumulateAndGet(micros, Math::max);
+    }
+
+    public Snapshot snapshot() {
+        long[] bucketCounts = new long[counts.length()];
+        long total = 0;
+        for (int i = 0; i < bucketCounts.length; i++) {
+            bucketCounts[i] = counts.get(i);
+            total += bucketCounts[i];
+        }
+        long max = maxMicros.get();
+        double meanMillis = total == 0 ? 0.0 : totalMicros.sum() / 1000.0 / count.sum();
+        return new Snapshot(total, meanMillis, percentileMillis(bucketCounts, total, 0.50, max),
+                percentileMillis(bucketCounts, total, 0.95, max), percentileMillis(bucketCounts, total, 0.99, max), max / 1000.0);
+    }
+
+    private static double percentileMillis(long[] bucketCounts, long total, double percentile, long maxMicros) {
+        if (total == 0) {
+            return 0.0;
+        }
+        long rank = (long) Math.ceil(percentile * total);
+        long seen = 0;
+        for (int i = 0; i < bucketCounts.length; i++) {
+            seen += bucketCounts[i];
+            if (seen >= rank) {
+                return Math.min(BUCKET_UPPER_BOUNDS_MICROS[i], maxMicros) / 1000.0;
+            }
+        }
+        return maxMicros / 1000.0;
+    }
+
+    /**
+     * Point-in-time summary of the histogram in milliseconds.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Snapshot {
+        private final long count;
+        private final double meanMillis;
+        private final double p50Millis;
+        private final double p95Millis;
+        private final double p99Millis;
+        private final double maxMillis;
+    }
+}
@@ -4,25 +4,185 @@ import com.mongodb.event.CommandFailedEvent;
 import com.mongodb.event.CommandListener;
 import com.mongodb.event.CommandStartedEvent;
 import com.mongodb.event.CommandSucceededEvent;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.RawBsonDocument;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records MongoDB command latencies per command name and per collection, along with reply sizes and failures.
+ * Individual commands are only logged when they exceed the slow-query threshold, and then with a redacted,
+ * truncated command body: field names are kept but values are replaced, and bulk payloads are reduced to counts.
+ */
 public class MongoCommandListener implements CommandListener {
     private static final Logger logger = LoggerFactory.getLogger(MongoCommandListener.class);
+    private static final Set<String> IGNORED_FIELDS = Set.of("lsid", "$clusterTime", "$db", "txnNumber", "$readPreference", "signature", "apiVersion");
+
+    private final long slowThresholdNanos;
+    private final int maxLoggedCommandLength;
+    private final Map<Integer, StartedCommand> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, CommandStats> byCommand = new ConcurrentHashMap<>();
+    private final Map<String, CommandStats> byCollection = new ConcurrentHashMap<>();
+    private final LongAdder slowCommands = new LongAdder();
+
+    public MongoCommandListener(Duration slowThreshold, int maxLoggedCommandLength) {
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.maxLoggedCommandLength = maxLoggedCommandLength;
+    }
 
     @Override
     public void commandStarted(CommandStartedEvent event) {
-        logger.info("MongoDB command started: {}", event.getCommandName());
-        logger.info("Command details: {}", event.getCommand().toJson());
+        BsonDocument command = event.getCommand();
+        inFlight.put(event.getRequestId(), new StartedCommand(collectionOf(event.getCommandName(), command), redact(command)));
+        if (logger.isDebugEnabled()) {
+            logger.debug("MongoDB command started: {}", event.getCommandName());
+        }
     }
 
     @Override
     public void commandSucceeded(CommandSucceededEvent event) {
-        logger.info("MongoDB command succeeded: {}", event.getCommandName());
+        StartedCommand started = inFlight.remove(event.getRequestId());
+        long elapsedNanos = event.getElapsedTime(TimeUnit.NANOSECONDS);
+        long replyBytes = event.getResponse() instanceof RawBsonDocument raw ? raw.getByteBuffer().remaining() : 0;
+        record(event.getCommandName(), started, elapsedNanos, replyBytes, false);
+
+        if (elapsedNanos >= slowThresholdNanos) {
+            slowCommands.increment();
+            logger.warn("Slow MongoDB command {} on {} took {} ms ({} reply bytes): {}", event.getCommandName(),
+                    started == null ? "unknown" : started.collection, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), replyBytes,
+                    started == null ? "" : started.summary);
+        }
     }
 
     @Override
     public void commandFailed(CommandFailedEvent event) {
-        logger.error("MongoDB command failed: {}", event.getCommandName(), event.getThrowable());
+        StartedCommand started = inFlight.remove(event.getRequestId());
+        record(event.getCommandName(), started, event.getElapsedTime(TimeUnit.NANOSECONDS), 0, true);
+        logger.error("MongoDB command failed: {} on {}: {}", event.getCommandName(),
+                started == null ? "unknown" : started.collection, started == null ? "" : started.summary, event.getThrowable());
+    }
+
+    public Map<String, CommandStats.Snapshot> commandStats() {
+        return snapshot(byCommand);
+    }
+
+    public Map<String, CommandStats.Snapshot> collectionStats() {
+        return snapshot(byCollection);
+    }
+
+    public long getSlowCommandCount() {
+        return slowCommands.sum();
+    }
+
+    private void record(String commandName, StartedCommand started, long elapsedNanos, long replyBytes, boolean failed) {
+        byCommand.computeIfAbsent(commandName, key -> new CommandStats()).record(elapsedNanos, replyBytes, failed);
+        if (started != null && started.collection != null) {
+            byCollection.computeIfAbsent(started.collection, key -> new CommandStats()).record(elapsedNanos, replyBytes, failed);
+        }
+    }
+
+    private Map<String, CommandStats.Snapshot> snapshot(Map<String, CommandStats> stats) {
+        Map<String, CommandStats.Snapshot> snapshot = new TreeMap<>();
+        stats.forEach((key, value) -> snapshot.put(key, value.snapshot()));
+        return snapshot;
+    }
+
+    private static String collectionOf(String commandName, BsonDocument command) {
+        BsonValue target = command.get(commandName);
+        if (target != null && target.isString()) {
+            return target.asString().getValue();
+        }
+        // getMore names the collection in a separate field, its main value is the cursor id
+        BsonValue collection = command.get("collection");
+        return collection != null && collection.isString() ? collection.asString().getValue() : null;
+    }
+
+    private String redact(BsonDocument command) {
+        StringBuilder summary = new StringBuilder();
+        appendDocument(summary, command, 0, true);
+        return summary.toString();
+    }
+
+    private void appendDocument(StringBuilder out, BsonDocument document, int depth, boolean topLevel) {
+        out.append('{');
+        boolean first = true;
+        for (Map.Entry<String, BsonValue> field : document.entrySet()) {
+            if (out.length() > maxLoggedCommandLength) {
+                out.append("...");
+                break;
+            }
+            if (topLevel && IGNORED_FIELDS.contains(field.getKey())) {
+                continue;
+            }
+            if (!first) {
+                out.append(", ");
+            }
+            first = false;
+            out.append(field.getKey()).append(": ");
+            appendValue(out, field.getValue(), depth, topLevel);
+        }
+        out.append('}');
+    }
+
+    private void appendValue(StringBuilder out, BsonValue value, int depth, boolean topLevel) {
+        if (value.isDocument() && depth < 3) {
+            appendDocument(out, value.asDocument(), depth + 1, false);
+        } else if (value.isArray()) {
+            BsonArray array = value.asArray();
+            out.append('[').append(array.size()).append(array.size() == 1 ? " item]" : " items]");
+        } else if (topLevel && value.isString()) {
+            // Top-level strings are command targets such as the collection name, not user data
+            out.append('"').append(value.asString().getValue()).append('"');
+        } else if (topLevel && value.isBoolean()) {
+            out.append(value.asBoolean().getValue());
+        } else if (topLevel && value.isNumber()) {
+            out.append(value.isDouble() ? String.valueOf(value.asDouble().getValue()) : String.valueOf(value.asNumber().longValue()));
+        } else {
+            out.append(value.isDocument() ? "{...}" : "?");
+        }
+    }
+
+    private record StartedCommand(String collection, String summary) {
+    }
+
+    /**
+     * Latency histogram plus reply size and failure counters for one command name or collection.
+     */
+    public static class CommandStats {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder replyBytes = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+
+        void record(long elapsedNanos, long bytes, boolean failed) {
+            latency.record(elapsedNanos, TimeUnit.NANOSECONDS);
+            replyBytes.add(bytes);
+            if (failed) {
+                failures.increment();
+            }
+        }
+
+        Snapshot snapshot() {
+            return new Snapshot(latency.snapshot(), replyBytes.sum(), failures.sum());
+        }
+
+        @Getter
+        @AllArgsConstructor
+        public static class Snapshot {
+            private final LatencyHistogram.Snapshot latency;
+            private final long replyBytes;
+            private final long failures;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,72 @@
+package com.thompson.bullrun.common;
+
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+/**
+ * Formats prices as {@code #,##0.00} in the US locale, rounding HALF_UP, without a {@link DecimalFormat} per call.
+ * <p>
+ * The output equals {@code DecimalFormat("#,##0.00")} with {@link RoundingMode#HALF_UP}, including its rounding of a
+ * double at its exact binary value (2.675 is 2.67499999... and formats as 2.67). Formatting holds no state, so one
+ * call is safe from any thread, virtual threads included, where a cached {@code ThreadLocal} format would be rebuilt
+ * for every new thread. Values too large for exact cent arithmetic, NaN and infinities fall back to DecimalFormat.
+ */
+public final class PriceFormatter {
+
+    private static final double FAST_PATH_LIMIT = 1e13;
+
+    private PriceFormatter() {
+    }
+
+    public static String format(double price) {
+        if (!(Math.abs(price) < FAST_PATH_LIMIT)) {
+            return decimalFormat().format(price);
+        }
+        double magnitude = Math.abs(price);
+        long cents = (long) (magnitude * 100);
+        // magnitude * 100 may have rounded across a cent; fma compares against the exact product
+        while (cents > 0 && Math.fma(100, magnitude, -cents) < 0) {
+            cents--;
+        }
+        while (Math.fma(100, magnitude, -(cents + 1)) >= 0) {
+            cents++;
+        }
+        if (Math.fma(100, magnitude, -(cents + 0.5)) >= 0) {
+            cents++;
+        }
+        // DecimalFormat keeps the sign of negative values that round to zero, and of -0.0
+        return format(cents, price < 0 || Double.doubleToRawLongBits(price) == Long.MIN_VALUE);
+    }
+
+    /**
+     * Formats micro-units (see {@link ValuationKernel}), rounding HALF_UP to cents.
+     */
+    public static String formatMicros(long micros) {
+        long cents = ValuationKernel.round(micros, 2) / (ValuationKernel.MICROS_PER_UNIT / 100);
+        return format(Math.abs(cents), cents < 0);
+    }
+
+    private static String format(long cents, boolean negative) {
+        String units = Long.toString(cents / 100);
+        StringBuilder text = new StringBuilder(units.length() + units.length() / 3 + 4);
+        if (negative) {
+            text.append('-');
+        }
+        for (int i = 0; i < units.length(); i++) {
+            if (i > 0 && (units.length() - i) % 3 == 0) {
+                text.append(',');
+            }
+            text.append(units.charAt(i));
+        }
+        long fraction = cents % 100;
+        return text.append('.').append((char) ('0' + fraction / 10)).append((char) ('0' + fraction % 10)).toString();
+    }
+
+    private static DecimalFormat decimalFormat() {
+        DecimalFormat decimalFormat = new DecimalFormat("#,##0.00", new DecimalFormatSymbols(Locale.US));
+        decimalFormat.setRoundingMode(RoundingMode.HALF_UP);
+        return decimalFormat;
+    }
+}
@@ -3,75 +3,166 @@ package com.thompson.bullrun.common;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.thompson.bullrun.config.RestLoggingProperties;
 import lombok.NonNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpRequest;
+import org.springframework.http.MediaType;
 import org.springframework.http.client.ClientHttpRequestExecution;
 import org.springframework.http.client.ClientHttpRequestInterceptor;
 import org.springframework.http.client.ClientHttpResponse;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
-import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Logs outbound REST calls according to {@link RestLoggingProperties}.
+ * The request thread only captures the values to log; formatting and writing happen on a single background
+ * thread with a bounded queue, and entries are dropped rather than blocking callers when the queue is full.
+ * Bodies are only buffered in BODY mode, for sampled calls with a textual content type.
+ */
 public class RestLoggerInterceptor implements ClientHttpRequestInterceptor {
 
     private static final Logger log = LoggerFactory.getLogger(RestLoggerInterceptor.class);
     private static final String LOG_SEPARATOR = "========================================================================================";
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final ObjectWriter PRETTY_WRITER = MAPPER.writer(SerializationFeature.INDENT_OUTPUT);
+
+    private final RestLoggingProperties properties;
+    private final ExecutorService logWriter;
+    private final AtomicLong sequence = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+
+    public RestLoggerInterceptor(RestLoggingProperties properties) {
+        this.properties = properties;
+        this.logWriter = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "rest-logger");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
 
     @NonNull
     @Override
     public ClientHttpResponse intercept(@NonNull HttpRequest request, byte @NonNull [] body, @NonNull ClientHttpRequestExecution execution) throws IOException {
-        String uniqueId = UUID.randomUUID().toString();
-        logRequest(request, body, uniqueId);
+        if (!shouldLog()) {
+            return execution.execute(request, body);
+        }
+
+        long id = sequence.incrementAndGet();
+        long start = System.nanoTime();
         ClientHttpResponse response = execution.execute(request, body);
-        ClientHttpResponse responseWrapper = new BufferingClientHttpResponseWrapper(response);
-        logResponse(responseWrapper, uniqueId);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        String uri = String.valueOf(request.getURI());
+        String method = String.valueOf(request.getMethod());
+        int status = response.getStatusCode().value();
+        MediaType contentType = response.getHeaders().getContentType();
+
+        if (properties.getLevel() != RestLoggingProperties.Level.BODY || !isLoggable(contentType)) {
+            submit(() -> logSummary(id, method, uri, status, elapsedMillis, contentType));
+            return response;
+        }
+
+        String requestHeaders = String.valueOf(request.getHeaders());
+        BufferingClientHttpResponseWrapper responseWrapper = new BufferingClientHttpResponseWrapper(response);
+        String statusText = responseWrapper.getStatusText();
+        byte[] responseBody = responseWrapper.getBodyBytes();
+        submit(() -> {
+            logRequest(id, method, uri, requestHeaders, body);
+            logResponse(id, status, statusText, elapsedMillis, contentType, responseBody);
+        });
         return responseWrapper;
     }
 
-    private void logRequest(HttpRequest request, byte[] body, String uniqueId) throws IOException {
-        log.info("======================================= Request ========================================");
-        log.info("Unique ID: {}", uniqueId);
-        log.info("URI: {}", request.getURI());
-        log.info("HTTP Method: {}", request.getMethod());
-        log.info("HTTP Headers: {}", request.getHeaders());
-        log.info("Request Body: {}", new String(body, StandardCharsets.UTF_8));
-        log.info(LOG_SEPARATOR);
-        log.info("");
-        log.info("");
+    private boolean shouldLog() {
+        if (properties.getLevel() == RestLoggingProperties.Level.NONE || !log.isInfoEnabled()) {
+            return false;
+        }
+        double sampleRate = properties.getSampleRate();
+        return sampleRate >= 1.0 || (sampleRate > 0.0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
     }
 
-    private void logResponse(ClientHttpResponse response, String uniqueId) throws IOException {
-        StringBuilder inputStringBuilder = new StringBuilder();
-        try (BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(response.getBody(), StandardCharsets.UTF_8))) {
-            inputStringBuilder.append(bufferedReader.lines().collect(Collectors.joining("\n")));
+    private boolean isLoggable(MediaType contentType) {
+        if (contentType == null) {
+            return false;
         }
-        String responseBody = inputStringBuilder.toString();
-        String formattedResponseBody = formatJson(responseBody);
+        if (contentType.getSubtype().endsWith("+json")) {
+            return true;
+        }
+        String type = contentType.getType() + "/" + contentType.getSubtype();
+        for (String loggable : properties.getLoggableContentTypes()) {
+            if (type.startsWith(loggable)) {
+                return true;
+            }
+        }
+        return false;
+    }
 
+    private void submit(Runnable entry) {
+        try {
+            logWriter.execute(entry);
+        } catch (RejectedExecutionException e) {
+            dropped.increment();
+        }
+    }
+
+    public long getDroppedEntries() {
+        return dropped.sum();
+    }
+
+    private void logSummary(long id, String method, String uri, int status, long elapsedMillis, MediaType contentType) {
+        log.info("[{}] {} {} -> {} in {} ms ({})", id, method, uri, status, elapsedMillis, contentType);
+    }
+
+    private void logRequest(long id, String method, String uri, String headers, byte[] body) {
+        log.info("======================================= Request ========================================");
+        log.info("Unique ID: {}", id);
+        log.info("URI: {}", uri);
+        log.info("HTTP Method: {}", method);
+        log.info("HTTP Headers: {}", headers);
+        log.info("Request Body: {}", truncate(body));
+        log.info(LOG_SEPARATOR);
+    }
+
+    private void logResponse(long id, int status, String statusText, long elapsedMillis, MediaType contentType, byte[] body) {
         log.info("======================================= Response =======================================");
-        log.info("Unique ID: {}", uniqueId);
-        log.info("HTTP Status Code: {}", response.getStatusCode());
-        log.info("HTTP Status Text: {}", response.getStatusText());
-        log.info("Response Body: {}", formattedResponseBody);
+        log.info("Unique ID: {}", id);
+        log.info("HTTP Status Code: {}", status);
+        log.info("HTTP Status Text: {}", statusText);
+        log.info("Elapsed: {} ms", elapsedMillis);
+        log.info("Response Body: {}", formatBody(contentType, body));
         log.info(LOG_SEPARATOR);
-        log.info("");
-        log.info("");
     }
 
-    private String formatJson(String json) {
+    private String formatBody(MediaType contentType, byte[] body) {
+        boolean json = contentType != null && (MediaType.APPLICATION_JSON.isCompatibleWith(contentType) || contentType.getSubtype().endsWith("+json"));
+        if (!json || body.length > properties.getMaxBodyBytes()) {
+            return truncate(body);
+        }
         try {
-            ObjectMapper mapper = new ObjectMapper();
-            Object jsonObject = mapper.readValue(json, Object.class);
-            ObjectWriter writer = mapper.writer(SerializationFeature.INDENT_OUTPUT);
-            return writer.writeValueAsString(jsonObject);
+            return PRETTY_WRITER.writeValueAsString(MAPPER.readValue(body, Object.class));
         } catch (IOException e) {
-            return json;
+            return truncate(body);
+        }
+    }
+
+    private String truncate(byte[] body) {
+        int limit = properties.getMaxBodyBytes();
+        if (body.length <= limit) {
+            return new String(body, StandardCharsets.UTF_8);
         }
+        return new String(body, 0, limit, StandardCharsets.UTF_8) + "... (" + (body.length - limit) + " more bytes)";
     }
-}
\ No newline at end of file
+}
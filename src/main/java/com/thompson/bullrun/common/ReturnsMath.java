@@ -0,0 +1,212 @@
+package com.thompson.bullrun.common;
+
+/**
+ * Return and risk statistics over daily series held in primitive arrays.
+ * Series are aligned to a shared day axis; {@code NaN} marks a day without a value (e.g. before a symbol's first bar),
+ * and every statistic skips those days. Annualized figures assume {@value #TRADING_DAYS} trading days a year.
+ */
+public final class ReturnsMath {
+
+    public static final int TRADING_DAYS = 252;
+
+    private ReturnsMath() {
+    }
+
+    /**
+     * Places a symbol's closes on the day axis. Days between bars carry the previous close forward, so a day the symbol
+     * did not trade has a zero return; days before the first bar are {@code NaN}.
+     *
+     * @param axis  ascending epoch days
+     * @param days  ascending epoch days of the bars
+     * @param close close of each bar
+     */
+    public static double[] alignCloses(int[] axis, int[] days, double[] close) {
+        double[] aligned = new double[axis.length];
+        double last = Double.NaN;
+        int bar = 0;
+        for (int i = 0; i < axis.length; i++) {
+            while (bar < days.length && days[bar] <= axis[i]) {
+                last = close[bar++];
+            }
+            aligned[i] = last;
+        }
+        return aligned;
+    }
+
+    /**
+     * Simple daily returns; element i is the return from day i-1 to day i, {@code NaN} when either price is missing.
+     */
+    public static double[] dailyReturns(double[] prices) {
+        double[] returns = new double[prices.length];
+        if (prices.length > 0) {
+            returns[0] = Double.NaN;
+        }
+        for (int i = 1; i < prices.length; i++) {
+            double previous = prices[i - 1];
+            returns[i] = previous > 0 ? prices[i] / previous - 1 : Double.NaN;
+        }
+        return returns;
+    }
+
+    /**
+     * Number of days with a return.
+     */
+    public static int observations(double[] returns) {
+        int count = 0;
+        for (double r : returns) {
+            if (!Double.isNaN(r)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Time-weighted return: the daily returns chain-linked, so the result does not depend on how much was held when.
+     */
+    public static double compound(double[] returns) {
+        double growth = 1;
+        for (double r : returns) {
+            if (!Double.isNaN(r)) {
+                growth *= 1 + r;
+            }
+        }
+        return growth - 1;
+    }
+
+    /**
+     * Annualizes a total return earned over the given number of daily returns.
+     */
+    public static double annualize(double totalReturn, int observations) {
+        if (observations == 0) {
+            return Double.NaN;
+        }
+        return Math.pow(1 + totalReturn, (double) TRADING_DAYS / observations) - 1;
+    }
+
+    /**
+     * Annualized sample standard deviation of the daily returns.
+     */
+    public static double volatility(double[] returns) {
+        int n = 0;
+        double mean = 0;
+        double m2 = 0;
+        for (double r : returns) {
+            if (!Double.isNaN(r)) {
+                n++;
+                double delta = r - mean;
+                mean += delta / n;
+                m2 += delta * (r - mean);
+            }
+        }
+        return n < 2 ? Double.NaN : Math.sqrt(m2 / (n - 1) * TRADING_DAYS);
+    }
+
+    /**
+     * Annualized volatility over a trailing window of daily returns. Element i covers the window ending at day i and
+     * is {@code NaN} until the window holds {@code window} returns.
+     */
+    public static double[] rollingVolatility(double[] returns, int window) {
+        if (window < 2) {
+            throw new IllegalArgumentException("window must be at least 2");
+        }
+        double[] rolling = new double[returns.length];
+        double sum = 0;
+        double sumOfSquares = 0;
+        int defined = 0;
+        for (int i = 0; i < returns.length; i++) {
+            double r = returns[i];
+            if (!Double.isNaN(r)) {
+                sum += r;
+                sumOfSquares += r * r;
+                defined++;
+            }
+            if (i >= window) {
+                double dropped = returns[i - window];
+                if (!Double.isNaN(dropped)) {
+                    sum -= dropped;
+                    sumOfSquares -= dropped * dropped;
+                    defined--;
+                }
+            }
+            if (defined == window) {
+                double variance = Math.max(0, (sumOfSquares - sum * sum / window) / (window - 1));
+                rolling[i] = Math.sqrt(variance * TRADING_DAYS);
+            } else {
+                rolling[i] = Double.NaN;
+            }
+        }
+        return rolling;
+    }
+
+    /**
+     * Largest peak-to-trough decline of the value implied by the daily returns, as a positive fraction of the peak.
+     */
+    public static double maxDrawdown(double[] returns) {
+        double value = 1;
+        double peak = 1;
+        double maxDrawdown = 0;
+        for (double r : returns) {
+            if (Double.isNaN(r)) {
+                continue;
+            }
+            value *= 1 + r;
+            if (value > peak) {
+                peak = value;
+            } else {
+                maxDrawdown = Math.max(maxDrawdown, 1 - value / peak);
+            }
+        }
+        return maxDrawdown;
+    }
+
+    /**
+     * Sensitivity of the returns to the benchmark's returns, over the days both have a return.
+     */
+    public static double beta(double[] returns, double[] benchmark) {
+        int n = 0;
+        double meanX = 0;
+        double meanY = 0;
+        double covariance = 0;
+        double variance = 0;
+        for (int i = 0; i < Math.min(returns.length, benchmark.length); i++) {
+            double y = returns[i];
+            double x = benchmark[i];
+            if (Double.isNaN(x) || Double.isNaN(y)) {
+                continue;
+            }
+            n++;
+            double dx = x - meanX;
+            meanX += dx / n;
+            meanY += (y - meanY) / n;
+            covariance += dx * (y - meanY);
+            variance += dx * (x - meanX);
+        }
+        return n < 2 || variance == 0 ? Double.NaN : covariance / variance;
+    }
+
+    /**
+     * Annualized Sharpe ratio of the daily returns.
+     *
+     * @param annualRiskFreeRate risk-free rate per year, e.g. 0.04
+     */
+    public static double sharpe(double[] returns, double annualRiskFreeRate) {
+        double dailyRiskFree = Math.pow(1 + annualRiskFreeRate, 1.0 / TRADING_DAYS) - 1;
+        int n = 0;
+        double mean = 0;
+        double m2 = 0;
+        for (double r : returns) {
+            if (!Double.isNaN(r)) {
+                double excess = r - dailyRiskFree;
+                n++;
+                double delta = excess - mean;
+                mean += delta / n;
+                m2 += delta * (excess - mean);
+            }
+        }
+        if (n < 2 || m2 == 0) {
+            return Double.NaN;
+        }
+        return mean / Math.sqrt(m2 / (n - 1)) * Math.sqrt(TRADING_DAYS);
+    }
+}
@@ -0,0 +1,211 @@
+package com.thompson.bullrun.common;
+
+import com.thompson.bullrun.config.HttpClientProperties;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * UpstreamHttpClients gives every configured upstream host its own keep-alive HTTP client, so a slow provider
+ * can only exhaust its own pool. The JDK client negotiates HTTP/2 where the host supports it and falls back to HTTP/1.1.
+ * <p>
+ * Used as both the request factory and an interceptor: the interceptor bounds the concurrent requests per host
+ * and fails fast once a pool stays saturated for longer than the acquire timeout, instead of queueing request threads.
+ */
+@Slf4j
+public class UpstreamHttpClients implements ClientHttpRequestFactory, ClientHttpRequestInterceptor {
+
+    private static final String DEFAULT_POOL = "default";
+
+    private final Map<String, HostPool> pools = new LinkedHashMap<>();
+    private final long acquireTimeoutNanos;
+
+    public UpstreamHttpClients(HttpClientProperties properties) {
+        this.acquireTimeoutNanos = properties.getAcquireTimeout().toNanos();
+        for (String host : properties.getHosts()) {
+            String key = host.toLowerCase(Locale.ROOT);
+            pools.put(key, new HostPool(key, properties.maxConnectionsFor(host), properties));
+        }
+        pools.put(DEFAULT_POOL, new HostPool(DEFAULT_POOL, properties.getDefaultMaxConnections(), properties));
+        log.info("Initialized upstream HTTP pools for hosts: {}", pools.keySet());
+    }
+
+    @NonNull
+    @Override
+    public ClientHttpRequest createRequest(@NonNull URI uri, @NonNull HttpMethod httpMethod) throws IOException {
+        return poolFor(uri).requestFactory.createRequest(uri, httpMethod);
+    }
+
+    @NonNull
+    @Override
+    public ClientHttpResponse intercept(@NonNull HttpRequest request, byte @NonNull [] body, @NonNull ClientHttpRequestExecution execution) throws IOException {
+        HostPool pool = poolFor(request.getURI());
+        pool.acquire(acquireTimeoutNanos);
+        try {
+            return new PermitReleasingResponse(execution.execute(request, body), pool);
+        } catch (IOException | RuntimeException e) {
+            pool.release();
+            throw e;
+        }
+    }
+
+    public List<PoolStats> poolStats() {
+        List<PoolStats> stats = new ArrayList<>();
+        pools.values().forEach(pool -> stats.add(pool.stats()));
+        return stats;
+    }
+
+    private HostPool poolFor(URI uri) {
+        String host = uri.getHost() == null ? DEFAULT_POOL : uri.getHost().toLowerCase(Locale.ROOT);
+        return pools.getOrDefault(host, pools.get(DEFAULT_POOL));
+    }
+
+    private static final class HostPool {
+        private final String name;
+        private final int maxConnections;
+        private final Semaphore permits;
+        private final JdkClientHttpRequestFactory requestFactory;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger peakInFlight = new AtomicInteger();
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder rejections = new LongAdder();
+        private final LongAdder acquireWaitNanos = new LongAdder();
+
+        private HostPool(String name, int maxConnections, HttpClientProperties properties) {
+            this.name = name;
+            this.maxConnections = maxConnections;
+            this.permits = new Semaphore(maxConnections, true);
+            HttpClient httpClient = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_2)
+                    .connectTimeout(properties.getConnectTimeout())
+                    .followRedirects(HttpClient.Redirect.NORMAL)
+                    .build();
+            this.requestFactory = new JdkClientHttpRequestFactory(httpClient);
+            // Applied as the request timeout, which bounds the wait for the response as well as reading its body
+            this.requestFactory.setReadTimeout(properties.getReadTimeout());
+        }
+
+        void acquire(long timeoutNanos) throws IOException {
+            long start = System.nanoTime();
+            boolean acquired;
+            try {
+                acquired = permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for a connection to " + name, e);
+            }
+            acquireWaitNanos.add(System.nanoTime() - start);
+            if (!acquired) {
+                rejections.increment();
+                log.warn("Connection pool for {} saturated ({} in flight). Rejecting request.", name, inFlight.get());
+                throw new IOException("Connection pool for " + name + " is saturated");
+            }
+            requests.increment();
+            peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        }
+
+        void release() {
+            inFlight.decrementAndGet();
+            permits.release();
+        }
+
+        PoolStats stats() {
+            return new PoolStats(name, maxConnections, inFlight.get(), peakInFlight.get(), requests.sum(), rejections.sum(),
+                    TimeUnit.NANOSECONDS.toMillis(acquireWaitNanos.sum()));
+        }
+    }
+
+    /**
+     * Returns the pool permit once the caller has finished with the response.
+     */
+    private static final class PermitReleasingResponse implements ClientHttpResponse {
+        private final ClientHttpResponse response;
+        private final HostPool pool;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private PermitReleasingResponse(ClientHttpResponse response, HostPool pool) {
+            this.response = response;
+            this.pool = pool;
+        }
+
+        @NonNull
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return response.getStatusCode();
+        }
+
+        @NonNull
+        @Override
+        public String getStatusText() throws IOException {
+            return response.getStatusText();
+        }
+
+        @NonNull
+        @Override
+        public HttpHeaders getHeaders() {
+            return response.getHeaders();
+        }
+
+        @NonNull
+        @Override
+        public InputStream getBody() throws IOException {
+            return response.getBody();
+        }
+
+        @Override
+        public void close() {
+            try {
+                response.close();
+            } finally {
+                if (released.compareAndSet(false, true)) {
+                    pool.release();
+                }
+            }
+        }
+    }
+
+    /**
+     * Point-in-time counters of one host pool. Saturation is the share of connections currently in use.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class PoolStats {
+        private final String host;
+        private final int maxConnections;
+        private final int inFlight;
+        private final int peakInFlight;
+        private final long requests;
+        private final long rejections;
+        private final long acquireWaitMillis;
+
+        public double getSaturation() {
+            return maxConnections == 0 ? 0.0 : (double) inFlight / maxConnections;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.thompson.bullrun.common;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.Locale;
+
+/**
+ * Records timers and error counters for outbound calls, tagged by provider and logical endpoint.
+ * Tags never include the URL itself, which carries symbols and API keys.
+ */
+@Component
+public class UpstreamMetrics {
+
+    public static final String SUCCESS = "success";
+    public static final String CLIENT_ERROR = "client_error";
+    public static final String SERVER_ERROR = "server_error";
+    public static final String IO_ERROR = "io_error";
+
+    private final MeterRegistry meterRegistry;
+
+    public UpstreamMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(meterRegistry);
+    }
+
+    /**
+     * Stops the sample and records it under the provider derived from the URL.
+     *
+     * @param sample   sample returned by {@link #start()}
+     * @param url      URL that was called, only its host is used
+     * @param endpoint logical endpoint name, e.g. stockPrice
+     * @param outcome  one of the outcome constants
+     */
+    public void stop(Timer.Sample sample, String url, String endpoint, String outcome) {
+        Tags tags = Tags.of("provider", providerOf(url), "endpoint", endpoint);
+        sample.stop(Timer.builder("bullrun.upstream.requests")
+                .description("Outbound calls to market data providers")
+                .tags(tags)
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+        if (!SUCCESS.equals(outcome)) {
+            meterRegistry.counter("bullrun.upstream.errors", tags.and("outcome", outcome)).increment();
+        }
+    }
+
+    public static String outcomeOf(HttpStatusCode status) {
+        if (status.is2xxSuccessful() || status.is3xxRedirection()) {
+            return SUCCESS;
+        }
+        return status.is4xxClientError() ? CLIENT_ERROR : SERVER_ERROR;
+    }
+
+    static String providerOf(String url) {
+        String host;
+        try {
+            host = URI.create(url).getHost();
+        } catch (IllegalArgumentException e) {
+            host = null;
+        }
+        if (host == null) {
+            return "unknown";
+        }
+        host = host.toLowerCase(Locale.ROOT);
+        if (host.contains("twelvedata")) {
+            return "twelvedata";
+        }
+        if (host.contains("polygon")) {
+            return "polygon";
+        }
+        if (host.contains("yahoo")) {
+            return "yahoo";
+        }
+        return "other";
+    }
+}
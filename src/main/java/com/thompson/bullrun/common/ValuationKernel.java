@@ -0,0 +1,121 @@
+package com.thompson.bullrun.common;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point valuation on {@code long} micro-units (1 = 0.000001), replacing per-stock {@link BigDecimal} math.
+ * <p>
+ * Rounding matches {@code BigDecimal.valueOf(value).setScale(decimals, RoundingMode.HALF_UP)} exactly: a double is
+ * taken at its shortest decimal representation and ties round away from zero. Prices with up to six decimals, which
+ * covers every quote the upstream APIs return, are converted with a few floating-point operations and no allocation;
+ * anything finer, or of a magnitude where doubles cannot tell micro-units apart, falls back to {@code BigDecimal}.
+ * Sums and products are exact and throw {@link ArithmeticException} on overflow instead of wrapping.
+ */
+public final class ValuationKernel {
+
+    public static final long MICROS_PER_UNIT = 1_000_000L;
+    public static final int MICRO_DECIMALS = 6;
+
+    // Below this magnitude adjacent micro-unit decimals map to distinct doubles, so the fast path is exact
+    private static final double FAST_PATH_LIMIT = 1e9;
+    private static final long NOT_EXACT = Long.MIN_VALUE;
+    private static final long[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000};
+
+    private ValuationKernel() {
+    }
+
+    /**
+     * Converts a double to micro-units rounded HALF_UP to the given number of decimals.
+     *
+     * @param decimals decimals to keep, 0 to 6
+     * @throws NumberFormatException if the value is NaN or infinite, as {@link BigDecimal#valueOf(double)} does
+     */
+    public static long toMicros(double value, int decimals) {
+        long unit = unit(decimals);
+        long micros = exactMicros(value);
+        if (micros != NOT_EXACT) {
+            return roundHalfUp(micros, unit);
+        }
+        return BigDecimal.valueOf(value).setScale(decimals, RoundingMode.HALF_UP).movePointRight(MICRO_DECIMALS).longValueExact();
+    }
+
+    /**
+     * Value of a quantity at a price, rounded HALF_UP to the given number of decimals. Equal to
+     * {@code BigDecimal.valueOf(price).multiply(BigDecimal.valueOf(quantity)).setScale(decimals, HALF_UP)}.
+     *
+     * @return value in micro-units
+     */
+    public static long value(double price, long quantity, int decimals) {
+        long unit = unit(decimals);
+        long priceMicros = exactMicros(price);
+        if (priceMicros != NOT_EXACT) {
+            return roundHalfUp(Math.multiplyExact(priceMicros, quantity), unit);
+        }
+        return BigDecimal.valueOf(price).multiply(BigDecimal.valueOf(quantity)).setScale(decimals, RoundingMode.HALF_UP)
+                .movePointRight(MICRO_DECIMALS).longValueExact();
+    }
+
+    /**
+     * Value of a quantity at a price given in micro-units, rounded HALF_UP to the given number of decimals.
+     *
+     * @return value in micro-units
+     */
+    public static long value(long priceMicros, long quantity, int decimals) {
+        return roundHalfUp(Math.multiplyExact(priceMicros, quantity), unit(decimals));
+    }
+
+    /**
+     * Rounds micro-units HALF_UP to the given number of decimals.
+     */
+    public static long round(long micros, int decimals) {
+        return roundHalfUp(micros, unit(decimals));
+    }
+
+    /**
+     * The double closest to the micro-units, the same double {@link BigDecimal#doubleValue()} returns.
+     */
+    public static double toDouble(long micros) {
+        // Both operands are exact below 2^53, so the single division rounds correctly
+        if (Math.abs(micros) < (1L << 53)) {
+            return micros / (double) MICROS_PER_UNIT;
+        }
+        return BigDecimal.valueOf(micros, MICRO_DECIMALS).doubleValue();
+    }
+
+    /**
+     * Micro-units of the value's shortest decimal representation, or {@link #NOT_EXACT} when that representation has
+     * more than six decimals or the value is outside the fast-path range.
+     */
+    private static long exactMicros(double value) {
+        if (!(Math.abs(value) < FAST_PATH_LIMIT)) {
+            return NOT_EXACT;
+        }
+        double scaled = Math.rint(value * MICROS_PER_UNIT);
+        // If the nearest double to scaled / 10^6 is the value itself, its shortest decimal has at most six decimals
+        // and equals scaled / 10^6 exactly
+        if (scaled / MICROS_PER_UNIT != value) {
+            return NOT_EXACT;
+        }
+        return (long) scaled;
+    }
+
+    private static long roundHalfUp(long micros, long unit) {
+        if (unit == 1) {
+            return micros;
+        }
+        long quotient = micros / unit;
+        long remainder = micros % unit;
+        if (Math.abs(remainder) * 2 >= unit) {
+            quotient += Long.signum(micros);
+        }
+        return Math.multiplyExact(quotient, unit);
+    }
+
+    private static long unit(int decimals) {
+        if (decimals < 0 || decimals > MICRO_DECIMALS) {
+            throw new IllegalArgumentException("decimals must be between 0 and " + MICRO_DECIMALS);
+        }
+        return POWERS_OF_TEN[MICRO_DECIMALS - decimals];
+    }
+}
@@ -23,4 +23,6 @@ public class ApiProperties {
     private String previousCloseURL;
     @Value("${companyLogo}")
     private String companyLogoURL;
+    @Value("${dailyQuote}")
+    private String dailyQuoteURL;
 }
\ No newline at end of file
@@ -1,7 +1,10 @@
 package com.thompson.bullrun.config;
 
 import com.thompson.bullrun.common.RestLoggerInterceptor;
+import com.thompson.bullrun.common.TtlCache;
+import com.thompson.bullrun.common.UpstreamHttpClients;
 import org.springframework.context.annotation.Bean;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.http.client.ClientHttpRequestInterceptor;
@@ -15,17 +18,45 @@ import java.util.List;
 @Component
 public class AppConfig {
 
+    /**
+     * Creates the per-host HTTP client pools used by all outbound calls.
+     *
+     * @param httpClientProperties timeout and pool size settings
+     * @return the upstream HTTP client pools
+     */
+    @Bean
+    public UpstreamHttpClients upstreamHttpClients(HttpClientProperties httpClientProperties) {
+        return new UpstreamHttpClients(httpClientProperties);
+    }
+
     /**
      * Creates a RestTemplate bean that can be used for making HTTP requests.
      *
+     * Requests go through one keep-alive connection pool per upstream host with connect and read timeouts,
+     * so a slow provider cannot hold request threads indefinitely or starve calls to other providers.
+     *
+     * @param upstreamHttpClients   per-host HTTP client pools
+     * @param restLoggingProperties settings for logging outbound calls
      * @return a new instance of RestTemplate
      */
     @Bean
-    public RestTemplate restTemplate() {
-        RestTemplate restTemplate = new RestTemplate();
+    public RestTemplate restTemplate(UpstreamHttpClients upstreamHttpClients, RestLoggingProperties restLoggingProperties) {
+        RestTemplate restTemplate = new RestTemplate(upstreamHttpClients);
         List<ClientHttpRequestInterceptor> interceptors = new ArrayList<>();
-        interceptors.add(new RestLoggerInterceptor());
+        interceptors.add(upstreamHttpClients);
+        interceptors.add(new RestLoggerInterceptor(restLoggingProperties));
         restTemplate.setInterceptors(interceptors);
         return restTemplate;
     }
-}
\ No newline at end of file
+
+    /**
+     * Creates the cache that sits in front of the upstream market data calls.
+     *
+     * @param quoteCacheProperties cache size and TTL settings
+     * @return a new TtlCache keyed by data type and symbol
+     */
+    @Bean
+    public TtlCache<String, ResponseEntity<String>> upstreamResponseCache(QuoteCacheProperties quoteCacheProperties) {
+        return new TtlCache<>(quoteCacheProperties.getMaxEntries());
+    }
+}
@@ -0,0 +1,32 @@
+package com.thompson.bullrun.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Settings for the outbound HTTP client layer. Every host in {@code hosts} gets its own connection pool,
+ * all other hosts share a default pool. Pool sizes can be overridden per host, e.g. http.maxConnections[api.polygon.io]=5.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "http")
+@Getter
+@Setter
+public class HttpClientProperties {
+    private Duration connectTimeout = Duration.ofSeconds(5);
+    private Duration readTimeout = Duration.ofSeconds(10);
+    private Duration acquireTimeout = Duration.ofSeconds(2);
+    private int defaultMaxConnections = 20;
+    private List<String> hosts = List.of("api.twelvedata.com", "api.polygon.io", "feeds.finance.yahoo.com");
+    private Map<String, Integer> maxConnections = new HashMap<>();
+
+    public int maxConnectionsFor(String host) {
+        return maxConnections.getOrDefault(host, defaultMaxConnections);
+    }
+}
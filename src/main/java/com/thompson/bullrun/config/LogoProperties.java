@@ -0,0 +1,31 @@
+package com.thompson.bullrun.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Freshness policy for company logos. A logo is only revalidated against the provider once its TTL has expired.
+ * Individual symbols can override the default TTL, e.g. logo.ttlOverrides.META=P1D.
+ * Thumbnails are generated once at ingest time for each of the configured sizes.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "logo")
+@Getter
+@Setter
+public class LogoProperties {
+    private Duration ttl = Duration.ofDays(7);
+    private Map<String, Duration> ttlOverrides = new HashMap<>();
+    private List<Integer> thumbnailSizes = List.of(32, 64, 128);
+    private int etagCacheSize = 1024;
+
+    public Duration ttlFor(String symbol) {
+        return ttlOverrides.getOrDefault(symbol, ttl);
+    }
+}
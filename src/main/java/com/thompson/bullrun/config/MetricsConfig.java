@@ -0,0 +1,84 @@
+package com.thompson.bullrun.config;
+
+import com.thompson.bullrun.common.MongoCommandListener;
+import com.thompson.bullrun.common.TtlCache;
+import com.thompson.bullrun.common.UpstreamHttpClients;
+import com.thompson.bullrun.services.QuoteStreamService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.ResponseEntity;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Exposes the counters the application already keeps in memory as Micrometer meters,
+ * so the quote cache, outbound connection pools, SSE subscribers and slow Mongo commands show up in /actuator/prometheus.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder quoteCacheMetrics(TtlCache<String, ResponseEntity<String>> upstreamResponseCache) {
+        return registry -> {
+            Gauge.builder("bullrun.quote.cache.size", upstreamResponseCache, cache -> cache.stats().getSize())
+                    .description("Entries held in the upstream response cache")
+                    .register(registry);
+            cacheCounter(registry, upstreamResponseCache, "hit", cache -> cache.stats().getHits());
+            cacheCounter(registry, upstreamResponseCache, "miss", cache -> cache.stats().getMisses());
+            cacheCounter(registry, upstreamResponseCache, "coalesced", cache -> cache.stats().getCoalesced());
+            FunctionCounter.builder("bullrun.quote.cache.evictions", upstreamResponseCache, cache -> cache.stats().getEvictions())
+                    .register(registry);
+            FunctionCounter.builder("bullrun.quote.cache.expirations", upstreamResponseCache, cache -> cache.stats().getExpirations())
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder httpPoolMetrics(UpstreamHttpClients upstreamHttpClients) {
+        return registry -> upstreamHttpClients.poolStats().forEach(pool -> {
+            String host = pool.getHost();
+            Gauge.builder("bullrun.http.pool.in.flight", upstreamHttpClients, clients -> poolValue(clients, host, UpstreamHttpClients.PoolStats::getInFlight))
+                    .tag("host", host)
+                    .register(registry);
+            Gauge.builder("bullrun.http.pool.max", upstreamHttpClients, clients -> poolValue(clients, host, UpstreamHttpClients.PoolStats::getMaxConnections))
+                    .tag("host", host)
+                    .register(registry);
+            FunctionCounter.builder("bullrun.http.pool.rejections", upstreamHttpClients, clients -> poolValue(clients, host, UpstreamHttpClients.PoolStats::getRejections))
+                    .tag("host", host)
+                    .register(registry);
+        });
+    }
+
+    @Bean
+    public MeterBinder quoteStreamMetrics(QuoteStreamService quoteStreamService) {
+        return registry -> Gauge.builder("bullrun.stream.subscribers", quoteStreamService, QuoteStreamService::getSubscriberCount)
+                .description("Open Server-Sent Events quote subscriptions")
+                .register(registry);
+    }
+
+    @Bean
+    public MeterBinder mongoSlowCommandMetrics(MongoCommandListener mongoCommandListener) {
+        return registry -> FunctionCounter.builder("bullrun.mongo.slow.commands", mongoCommandListener, MongoCommandListener::getSlowCommandCount)
+                .description("Mongo commands slower than mongo.slowQueryThreshold")
+                .register(registry);
+    }
+
+    private static void cacheCounter(MeterRegistry registry, TtlCache<String, ResponseEntity<String>> cache,
+                                     String result, ToDoubleFunction<TtlCache<String, ResponseEntity<String>>> count) {
+        FunctionCounter.builder("bullrun.quote.cache.requests", cache, count)
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private static double poolValue(UpstreamHttpClients clients, String host, ToDoubleFunction<UpstreamHttpClients.PoolStats> value) {
+        return clients.poolStats().stream()
+                .filter(pool -> pool.getHost().equals(host))
+                .mapToDouble(value)
+                .findFirst()
+                .orElse(0.0);
+    }
+}
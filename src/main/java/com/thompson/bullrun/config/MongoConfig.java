@@ -4,10 +4,15 @@ import com.mongodb.MongoClientSettings;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
 import com.thompson.bullrun.common.MongoCommandListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.mongodb.MongoMetricsCommandListener;
+import io.micrometer.core.instrument.binder.mongodb.MongoMetricsConnectionPoolListener;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 @Configuration
 public class MongoConfig {
 
@@ -15,10 +20,18 @@ public class MongoConfig {
     private String mongoUri;
 
     @Bean
-    public MongoClient mongoClient() {
+    public MongoCommandListener mongoCommandListener(@Value("${mongo.slowQueryThreshold:PT0.2S}") Duration slowQueryThreshold,
+                                                     @Value("${mongo.maxLoggedCommandLength:1000}") int maxLoggedCommandLength) {
+        return new MongoCommandListener(slowQueryThreshold, maxLoggedCommandLength);
+    }
+
+    @Bean
+    public MongoClient mongoClient(MongoCommandListener mongoCommandListener, MeterRegistry meterRegistry) {
         MongoClientSettings settings = MongoClientSettings.builder()
                 .applyConnectionString(new com.mongodb.ConnectionString(mongoUri))
-                .addCommandListener(new MongoCommandListener())
+                .addCommandListener(mongoCommandListener)
+                .addCommandListener(new MongoMetricsCommandListener(meterRegistry))
+                .applyToConnectionPoolSettings(pool -> pool.addConnectionPoolListener(new MongoMetricsConnectionPoolListener(meterRegistry)))
                 .build();
         return MongoClients.create(settings);
     }
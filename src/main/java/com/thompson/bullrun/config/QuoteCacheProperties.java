@@ -0,0 +1,28 @@
+package com.thompson.bullrun.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Settings for the in-memory cache in front of the upstream market data calls.
+ * Each data type (stockPrice, previousClose, companyProfile, companyLogo) has its own TTL.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "quote-cache")
+@Getter
+@Setter
+public class QuoteCacheProperties {
+    private int maxEntries = 5000;
+    private Duration defaultTtl = Duration.ofSeconds(15);
+    private Map<String, Duration> ttl = new HashMap<>();
+
+    public Duration ttlFor(String dataType) {
+        return ttl.getOrDefault(dataType, defaultTtl);
+    }
+}
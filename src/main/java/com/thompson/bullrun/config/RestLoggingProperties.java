@@ -0,0 +1,30 @@
+package com.thompson.bullrun.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Settings for logging outbound REST calls.
+ * NONE disables logging, HEADERS logs the request line, status and timing only, and BODY also logs
+ * textual bodies up to maxBodyBytes. Only a sampleRate share of calls is logged.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "rest-logging")
+@Getter
+@Setter
+public class RestLoggingProperties {
+
+    public enum Level {
+        NONE, HEADERS, BODY
+    }
+
+    private Level level = Level.HEADERS;
+    private double sampleRate = 1.0;
+    private int maxBodyBytes = 4096;
+    private List<String> loggableContentTypes = List.of("application/json", "application/xml", "text/");
+    private int queueCapacity = 1000;
+}
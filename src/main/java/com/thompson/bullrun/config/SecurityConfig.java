@@ -2,6 +2,7 @@ package com.thompson.bullrun.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.core.userdetails.User;
@@ -21,7 +22,8 @@ public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Excepti
             .csrf(AbstractHttpConfigurer::disable) // Disable CSRF
             .cors(cors -> cors.configurationSource(corsConfigurationSource())) // Apply CORS configuration
             .authorizeHttpRequests(auth -> auth
-                    .requestMatchers("/actuator/**").permitAll() // Allow access to actuator endpoints
+                    .requestMatchers("/actuator/health", "/actuator/health/**").permitAll() // Health probes only; metrics and prometheus require authentication
+                    .requestMatchers(HttpMethod.GET, "/logos/**").permitAll() // Logos are public and loaded by <img> tags
                     .anyRequest().authenticated() // Require authentication for all other requests
             )
             .httpBasic(httpBasic -> httpBasic.realmName("MyApp")); // Enable Basic Auth with custom realm
@@ -0,0 +1,58 @@
+package com.thompson.bullrun.controller;
+
+import com.thompson.bullrun.entities.PortfolioAnalytics;
+import com.thompson.bullrun.services.PortfolioAnalyticsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+
+/**
+ * AnalyticsController serves return and risk statistics of the portfolio and its holdings.
+ */
+@Slf4j
+@RestController
+@Tag(name = "Analytics Controller", description = "Endpoints for portfolio analytics")
+@RequestMapping("/analytics")
+public class AnalyticsController {
+
+    private final PortfolioAnalyticsService portfolioAnalyticsService;
+
+    public AnalyticsController(PortfolioAnalyticsService portfolioAnalyticsService) {
+        this.portfolioAnalyticsService = portfolioAnalyticsService;
+    }
+
+    @Operation(summary = "Computes returns, volatility, drawdown, beta versus SPX and Sharpe for the portfolio and each holding")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Analytics computed"),
+            @ApiResponse(responseCode = "400", description = "Invalid date range or window"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/portfolio")
+    public ResponseEntity<PortfolioAnalytics> getPortfolioAnalytics(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                                    @RequestParam(defaultValue = "21") int window) {
+        LocalDate end = to == null ? LocalDate.now() : to;
+        LocalDate start = from == null ? end.minusYears(1) : from;
+        log.info("Fetching portfolio analytics from {} to {} with a {}-day window", start, end, window);
+        try {
+            return ResponseEntity.ok(portfolioAnalyticsService.analyze(start, end, window));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected analytics request: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (Exception e) {
+            log.error("Failed to compute portfolio analytics", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.thompson.bullrun.controller;
+
+import com.thompson.bullrun.entities.BarSeries;
+import com.thompson.bullrun.services.LocalBarCache;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * DailyBarController serves the stored daily OHLCV history of held symbols.
+ */
+@Slf4j
+@RestController
+@Tag(name = "Daily Bar Controller", description = "Endpoints for historical daily bars")
+@RequestMapping("/stockData")
+public class DailyBarController {
+
+    private static final int MAX_SYMBOLS = 500;
+
+    private final LocalBarCache localBarCache;
+
+    public DailyBarController(LocalBarCache localBarCache) {
+        this.localBarCache = localBarCache;
+    }
+
+    @Operation(summary = "Fetches daily bars for one or more symbols over a date range")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Bars keyed by symbol, in ascending date order"),
+            @ApiResponse(responseCode = "400", description = "Invalid symbols or date range"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/bars")
+    public ResponseEntity<Map<String, BarSeries>> getBars(@RequestParam List<String> symbols,
+                                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to == null ? LocalDate.now() : to;
+        LocalDate start = from == null ? end.minusYears(1) : from;
+        if (symbols.isEmpty() || symbols.size() > MAX_SYMBOLS || start.isAfter(end)) {
+            log.warn("Rejected bars request for {} symbols from {} to {}", symbols.size(), start, end);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        log.info("Fetching daily bars for {} symbols from {} to {}", symbols.size(), start, end);
+        try {
+            List<String> normalized = symbols.stream().map(symbol -> symbol.trim().toUpperCase(Locale.ROOT)).toList();
+            return ResponseEntity.ok(localBarCache.findBars(normalized, start, end));
+        } catch (Exception e) {
+            log.error("Failed to fetch daily bars for symbols: {}", symbols, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.thompson.bullrun.controller;
+
+import com.thompson.bullrun.common.MongoCommandListener;
+import com.thompson.bullrun.common.TtlCache;
+import com.thompson.bullrun.common.UpstreamHttpClients;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DiagnosticsController exposes internal runtime counters for troubleshooting.
+ */
+@Slf4j
+@RestController
+@Tag(name = "Diagnostics Controller", description = "Endpoints for inspecting runtime counters")
+@RequestMapping("/diagnostics")
+public class DiagnosticsController {
+
+    private final TtlCache<String, ResponseEntity<String>> upstreamResponseCache;
+    private final UpstreamHttpClients upstreamHttpClients;
+    private final MongoCommandListener mongoCommandListener;
+
+    public DiagnosticsController(TtlCache<String, ResponseEntity<String>> upstreamResponseCache, UpstreamHttpClients upstreamHttpClients,
+                                 MongoCommandListener mongoCommandListener) {
+        this.upstreamResponseCache = upstreamResponseCache;
+        this.upstreamHttpClients = upstreamHttpClients;
+        this.mongoCommandListener = mongoCommandListener;
+    }
+
+    @Operation(summary = "Returns hit, miss and eviction counters of the upstream response cache")
+    @GetMapping("/quoteCache")
+    public TtlCache.Stats getQuoteCacheStats() {
+        TtlCache.Stats stats = upstreamResponseCache.stats();
+        log.info("Quote cache stats requested: {} hits, {} misses, {} evictions", stats.getHits(), stats.getMisses(), stats.getEvictions());
+        return stats;
+    }
+
+    @Operation(summary = "Returns in-flight, peak and rejection counters of the per-host HTTP connection pools")
+    @GetMapping("/httpPools")
+    public List<UpstreamHttpClients.PoolStats> getHttpPoolStats() {
+        return upstreamHttpClients.poolStats();
+    }
+
+    @Operation(summary = "Returns MongoDB latency histograms, reply sizes and failures per command and per collection")
+    @GetMapping("/mongo")
+    public Map<String, Object> getMongoStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("slowCommands", mongoCommandListener.getSlowCommandCount());
+        stats.put("commands", mongoCommandListener.commandStats());
+        stats.put("collections", mongoCommandListener.collectionStats());
+        return stats;
+    }
+}
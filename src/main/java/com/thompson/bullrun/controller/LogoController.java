@@ -0,0 +1,115 @@
+package com.thompson.bullrun.controller;
+
+import com.thompson.bullrun.config.LogoProperties;
+import com.thompson.bullrun.services.LogoStoreService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * LogoController serves logo images straight from the logo store.
+ * Logos are addressed by content hash, so a given URL never changes content and can be cached indefinitely.
+ * Revalidations for recently served logos are answered with 304 from memory, without a Mongo lookup.
+ */
+@Slf4j
+@RestController
+@Tag(name = "Logo Controller", description = "Endpoints for serving company logos")
+@RequestMapping("/logos")
+public class LogoController {
+
+    private static final Pattern HASH_PATTERN = Pattern.compile("[0-9a-f]{64}");
+    private static final CacheControl CACHE_CONTROL = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+
+    private final LogoStoreService logoStoreService;
+    private final Map<String, Boolean> knownETags;
+
+    public LogoController(LogoStoreService logoStoreService, LogoProperties logoProperties) {
+        this.logoStoreService = logoStoreService;
+        int capacity = logoProperties.getEtagCacheSize();
+        this.knownETags = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > capacity;
+            }
+        });
+    }
+
+    @Operation(summary = "Streams a logo image by content hash, optionally as a pre-sized thumbnail")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Logo image"),
+            @ApiResponse(responseCode = "304", description = "Logo not modified"),
+            @ApiResponse(responseCode = "404", description = "Logo not found")
+    })
+    @GetMapping("/{hash}")
+    public ResponseEntity<byte[]> getLogo(@PathVariable String hash,
+                                          @RequestParam(required = false) Integer size,
+                                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (!HASH_PATTERN.matcher(hash).matches()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+
+        Integer thumbnailSize = logoStoreService.resolveThumbnailSize(size);
+        String eTag = thumbnailSize == null ? "\"" + hash + "\"" : "\"" + hash + "-" + thumbnailSize + "\"";
+        if (knownETags.containsKey(eTag) && matches(ifNoneMatch, eTag)) {
+            log.debug("Logo {} not modified (served from memory)", eTag);
+            return notModified(eTag);
+        }
+
+        Optional<LogoStoreService.LogoVariant> logo = logoStoreService.findVariant(hash, thumbnailSize);
+        if (logo.isEmpty()) {
+            log.warn("Logo with hash: {} not found", hash);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        knownETags.put(eTag, Boolean.TRUE);
+        if (matches(ifNoneMatch, eTag)) {
+            return notModified(eTag);
+        }
+
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CACHE_CONTROL)
+                .contentType(MediaType.parseMediaType(logo.get().getContentType()))
+                .contentLength(logo.get().getImage().length)
+                .body(logo.get().getImage());
+    }
+
+    private ResponseEntity<byte[]> notModified(String eTag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(CACHE_CONTROL).build();
+    }
+
+    private boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.startsWith("W/")) {
+                trimmed = trimmed.substring(2);
+            }
+            if (trimmed.equals(eTag) || trimmed.equals("*")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,62 @@
+package com.thompson.bullrun.controller;
+
+import com.thompson.bullrun.entities.HoldingPnl;
+import com.thompson.bullrun.entities.PortfolioPnl;
+import com.thompson.bullrun.services.PnlTracker;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Locale;
+
+/**
+ * PnlController serves the unrealized gain or loss of the portfolio and its holdings at the latest prices.
+ */
+@Slf4j
+@RestController
+@Tag(name = "P&L Controller", description = "Endpoints for unrealized gain and loss")
+@RequestMapping("/stockData")
+public class PnlController {
+
+    private final PnlTracker pnlTracker;
+
+    public PnlController(PnlTracker pnlTracker) {
+        this.pnlTracker = pnlTracker;
+    }
+
+    @Operation(summary = "Fetches the unrealized gain or loss and the daily change of the portfolio")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Portfolio P&L, with every holding unless holdings=false"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/pnl")
+    public ResponseEntity<PortfolioPnl> getPortfolioPnl(@RequestParam(defaultValue = "true") boolean holdings) {
+        log.debug("Fetching portfolio P&L (holdings: {})", holdings);
+        try {
+            return ResponseEntity.ok(pnlTracker.getPortfolio(holdings));
+        } catch (Exception e) {
+            log.error("Failed to fetch portfolio P&L", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @Operation(summary = "Fetches the unrealized gain or loss and the daily change of one holding")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Holding P&L"),
+            @ApiResponse(responseCode = "404", description = "Symbol not held")
+    })
+    @GetMapping("/pnl/holding")
+    public ResponseEntity<HoldingPnl> getHoldingPnl(@RequestParam String symbol) {
+        return pnlTracker.getHolding(symbol.trim().toUpperCase(Locale.ROOT))
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+    }
+}
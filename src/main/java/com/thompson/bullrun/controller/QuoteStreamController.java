@@ -0,0 +1,54 @@
+package com.thompson.bullrun.controller;
+
+import com.thompson.bullrun.services.QuoteStreamService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+/**
+ * QuoteStreamController lets clients subscribe to pushed price updates instead of polling /stockPrice.
+ */
+@Slf4j
+@RestController
+@Tag(name = "Quote Stream Controller", description = "Endpoints for streaming stock prices")
+@RequestMapping("/stockData")
+public class QuoteStreamController {
+
+    private final QuoteStreamService quoteStreamService;
+
+    public QuoteStreamController(QuoteStreamService quoteStreamService) {
+        this.quoteStreamService = quoteStreamService;
+    }
+
+    @Operation(summary = "Streams price updates for a set of symbols as Server-Sent Events")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Event stream opened"),
+            @ApiResponse(responseCode = "400", description = "No symbols or too many symbols requested"),
+            @ApiResponse(responseCode = "503", description = "Subscriber limit reached")
+    })
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamQuotes(@RequestParam List<String> symbols) {
+        log.info("Opening quote stream for symbols: {}", symbols);
+        try {
+            return ResponseEntity.ok(quoteStreamService.subscribe(symbols));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected quote stream request: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (IllegalStateException e) {
+            log.warn("Rejected quote stream request: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+}
@@ -1,8 +1,15 @@
 package com.thompson.bullrun.controller;
 
+import com.thompson.bullrun.common.TtlCache;
+import com.thompson.bullrun.common.UpstreamMetrics;
+import com.thompson.bullrun.config.QuoteCacheProperties;
+import com.thompson.bullrun.entities.IndexPriceSnapshot;
 import com.thompson.bullrun.entities.StockEntity;
+import com.thompson.bullrun.services.BatchQuoteClient;
 import com.thompson.bullrun.services.DailyStockDataService;
+import com.thompson.bullrun.services.IndexPriceRefresher;
 import com.thompson.bullrun.services.StockService;
+import io.micrometer.core.instrument.Timer;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -15,20 +22,19 @@ import org.json.JSONObject;
 import org.json.XML;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 
-import java.math.RoundingMode;
-import java.text.DecimalFormat;
-import java.text.DecimalFormatSymbols;
-import java.util.Arrays;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Locale;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @Slf4j
 @RestController
@@ -51,7 +57,11 @@ public class StockDataController {
                                @Value("${stockPrice}") String stockPriceURL,
                                @Value("${companyProfile}") String companyProfileURL,
                                @Value("${previousClose}") String previousCloseURL,
-                               @Value("${companyLogo}") String companyLogoURL, StockService stockService, DailyStockDataService dailyStockDataService, StockService stockService1) {
+                               @Value("${companyLogo}") String companyLogoURL, StockService stockService, DailyStockDataService dailyStockDataService, StockService stockService1,
+                               IndexPriceRefresher indexPriceRefresher,
+                               TtlCache<String, ResponseEntity<String>> upstreamResponseCache,
+                               QuoteCacheProperties quoteCacheProperties,
+                               UpstreamMetrics upstreamMetrics) {
         this.restTemplate = restTemplate;
         this.twelveDataAPIKey = twelveDataAPIKey;
         this.polygonAPIKey = polygonAPIKey;
@@ -61,17 +71,24 @@ public class StockDataController {
         this.companyLogoURL = companyLogoURL;
         this.dailyStockDataService = dailyStockDataService;
         this.stockService = stockService;
+        this.indexPriceRefresher = indexPriceRefresher;
+        this.upstreamResponseCache = upstreamResponseCache;
+        this.quoteCacheProperties = quoteCacheProperties;
+        this.upstreamMetrics = upstreamMetrics;
     }
 
-    private final String[] indexSymbols = {"DJI", "SPX", "IXIC"};
     private final String[] indexNames = {"Dow Jones Industrial Average", "S&P 500", "Nasdaq Composite"};
     private final DailyStockDataService dailyStockDataService;
     private final StockService stockService;
+    private final IndexPriceRefresher indexPriceRefresher;
+    private final TtlCache<String, ResponseEntity<String>> upstreamResponseCache;
+    private final QuoteCacheProperties quoteCacheProperties;
+    private final UpstreamMetrics upstreamMetrics;
 
     @GetMapping("/companyProfile")
     public ResponseEntity<String> getCompanyProfile(@RequestParam String symbol) {
         log.info("Fetching company profile for symbol: {}", symbol);
-        ResponseEntity<String> response = fetchData(companyProfileURL, symbol, polygonAPIKey);
+        ResponseEntity<String> response = fetchCachedData("companyProfile", companyProfileURL, symbol, polygonAPIKey);
         logResponseStatus("Company Profile", symbol, response);
         return response;
     }
@@ -79,7 +96,7 @@ public class StockDataController {
     @GetMapping("/stockPrice")
     public ResponseEntity<String> getStockPrice(@RequestParam String symbol) {
         log.info("Fetching stock price for symbol: {}", symbol);
-        ResponseEntity<String> response = fetchData(stockPriceURL, symbol, twelveDataAPIKey);
+        ResponseEntity<String> response = fetchCachedData("stockPrice", stockPriceURL, symbol, twelveDataAPIKey);
         logResponseStatus("Stock Price", symbol, response);
         return response;
     }
@@ -87,7 +104,7 @@ public class StockDataController {
     @GetMapping("/companyLogo")
     public ResponseEntity<String> getCompanyLogo(@RequestParam String symbol) {
         log.info("Fetching company logo for symbol: {}", symbol);
-        ResponseEntity<String> response = fetchData(companyLogoURL, symbol, twelveDataAPIKey);
+        ResponseEntity<String> response = fetchCachedData("companyLogo", companyLogoURL, symbol, twelveDataAPIKey);
         logResponseStatus("Company Logo", symbol, response);
         return response;
     }
@@ -95,7 +112,7 @@ public class StockDataController {
     @GetMapping("/previousClose")
     public ResponseEntity<String> getPreviousClose(@RequestParam String symbol) {
         log.info("Fetching previous close for symbol: {}", symbol);
-        ResponseEntity<String> response = fetchData(previousCloseURL, symbol, twelveDataAPIKey);
+        ResponseEntity<String> response = fetchCachedData("previousClose", previousCloseURL, symbol, twelveDataAPIKey);
         logResponseStatus("Previous Close", symbol, response);
         return response;
     }
@@ -103,12 +120,14 @@ public class StockDataController {
     @GetMapping("/stockNews")
     public ResponseEntity<String> getRSSFeed(@RequestParam String symbol) {
         log.info("Fetching RSS feed for symbol: {}", symbol);
+        final String url = "https://feeds.finance.yahoo.com/rss/2.0/headline?s=" + symbol;
+        Timer.Sample sample = upstreamMetrics.start();
         try {
-            final String url = "https://feeds.finance.yahoo.com/rss/2.0/headline?s=" + symbol;
             String rssFeed = restTemplate.getForObject(url, String.class);
 
             if (rssFeed == null) {
                 log.warn("RSS feed returned null for symbol: {}", symbol);
+                upstreamMetrics.stop(sample, url, "stockNews", UpstreamMetrics.SERVER_ERROR);
                 return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("RSS feed is unavailable.");
             }
 
@@ -116,9 +135,11 @@ public class StockDataController {
             JSONArray items = json.getJSONObject("rss").getJSONObject("channel").getJSONArray("item");
 
             log.info("Successfully fetched RSS feed items for symbol: {}", symbol);
+            upstreamMetrics.stop(sample, url, "stockNews", UpstreamMetrics.SUCCESS);
             return ResponseEntity.ok(items.toString());
         } catch (Exception e) {
             log.error("Error occurred while fetching RSS feed for symbol: {}", symbol, e);
+            upstreamMetrics.stop(sample, url, "stockNews", UpstreamMetrics.SERVER_ERROR);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error retrieving RSS feed");
         }
     }
@@ -130,38 +151,25 @@ public class StockDataController {
         return new ResponseEntity<>(stockExists, HttpStatus.OK);
     }
 
+    /**
+     * Serves the major index prices from the background refresher's snapshot without any upstream I/O.
+     * The X-Snapshot-Age-Seconds header reports the age of the stalest price in the snapshot.
+     */
     @GetMapping("/indexPrices")
-    public Map<String, String> getIndexPrices() {
-        log.info("Fetching index prices for major indices");
-        Map<String, String> indexPrices = Arrays.stream(indexSymbols)
-                .collect(Collectors.toMap(
-                        symbol -> symbol,
-                        symbol -> {
-                            ResponseEntity<String> response = fetchData(stockPriceURL, symbol, twelveDataAPIKey);
-                            log.info("Fetched price for symbol: {}", symbol);
-                            log.info("Response: {}", response);
-                            return getFormattedPrice(symbol, response);
-                        }
-                ));
-        log.info("Index prices fetched successfully: {}", indexPrices);
-        return indexPrices;
-    }
-
-    private String getFormattedPrice(String symbol, ResponseEntity<String> response) {
-        if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-            String priceStr = new JSONObject(response.getBody()).getString("price");
-            double price = Double.parseDouble(priceStr);
-            return formatPrice(price);
-        } else {
-            log.warn("Failed to fetch price for symbol {}. Status: {}", symbol, response.getStatusCode());
-            return "N/A";
-        }
+    public ResponseEntity<Map<String, String>> getIndexPrices() {
+        IndexPriceSnapshot snapshot = indexPriceRefresher.getSnapshot();
+        Duration age = snapshot.age(Instant.now());
+        log.debug("Serving index prices snapshot from {}", snapshot.getRefreshedAt());
+        return ResponseEntity.ok()
+                .header("X-Snapshot-Age-Seconds", age == null ? "-1" : String.valueOf(age.toSeconds()))
+                .body(snapshot.getPrices());
     }
 
     @Operation(summary = "Adds a new stock")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Stock added successfully",
                     content = @Content(schema = @Schema(implementation = StockEntity.class))),
+            @ApiResponse(responseCode = "409", description = "A stock with the symbol already exists"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @PostMapping("/addStock")
@@ -171,6 +179,9 @@ public class StockDataController {
             dailyStockDataService.updateOneStockPrice(stockEntity);
             log.info("Successfully added {} stock", stockEntity.getSymbol());
             return new ResponseEntity<>(stockEntity, HttpStatus.OK);
+        } catch (DuplicateKeyException e) {
+            log.warn("Stock with symbol: {} already exists", stockEntity.getSymbol());
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
         } catch (Exception e) {
             log.error("Failed to add new stock", e);
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
@@ -214,36 +225,37 @@ public class StockDataController {
         }
     }
 
-    private String getFormattedPrice(String symbol) {
-        log.debug("Fetching and formatting price for index symbol: {}", symbol);
-        ResponseEntity<String> response = fetchData(stockPriceURL, symbol, twelveDataAPIKey);
-
-        if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-            String priceStr = new JSONObject(response.getBody()).getString("price");
-            double price = Double.parseDouble(priceStr);
-            String formattedPrice = formatPrice(price);
-            log.debug("Formatted price for symbol {}: {}", symbol, formattedPrice);
-            return formattedPrice;
-        } else {
-            log.warn("Failed to fetch price for symbol {}. Status: {}", symbol, response.getStatusCode());
-            return "N/A";
-        }
+    /**
+     * Serves upstream data from the cache when possible. Concurrent misses for the same data type and symbol
+     * share one upstream call, and only successful responses are cached.
+     */
+    private ResponseEntity<String> fetchCachedData(String dataType, String url, String symbol, String apiKey) {
+        String cacheKey = dataType + ":" + symbol.toUpperCase(Locale.ROOT);
+        return upstreamResponseCache.get(cacheKey, quoteCacheProperties.ttlFor(dataType),
+                () -> fetchData(dataType, url, symbol, apiKey),
+                StockDataController::isCacheable);
     }
 
-    private String formatPrice(double price) {
-        DecimalFormatSymbols symbols = new DecimalFormatSymbols(Locale.US);
-        DecimalFormat decimalFormat = new DecimalFormat("#,##0.00", symbols);
-        decimalFormat.setRoundingMode(RoundingMode.HALF_UP);
-        String formattedPrice = decimalFormat.format(price);
-        log.debug("Formatted price: {}", formattedPrice);
-        return formattedPrice;
+    /**
+     * A response is successful when its status is 2xx and its body is not a TwelveData error, which the provider
+     * sends with HTTP 200.
+     */
+    static boolean isCacheable(ResponseEntity<String> response) {
+        return response.getStatusCode().is2xxSuccessful() && !BatchQuoteClient.isErrorBody(response.getBody());
     }
 
-    private ResponseEntity<String> fetchData(String url, String symbol, String apiKey) {
+    /**
+     * Calls the upstream endpoint and records the call. The outcome is set where each failure is handled, so an
+     * upstream 5xx counts as a server error and a connection failure as an I/O error, whatever status is returned.
+     */
+    private ResponseEntity<String> fetchData(String dataType, String url, String symbol, String apiKey) {
         log.info("Fetching data for symbol: {} from endpoint: {}", symbol, url);
+        Timer.Sample sample = upstreamMetrics.start();
+        String outcome = UpstreamMetrics.IO_ERROR;
         try {
             String apiUrl = constructApiUrl(url, symbol, apiKey);
             ResponseEntity<String> response = restTemplate.getForEntity(apiUrl, String.class);
+            outcome = UpstreamMetrics.outcomeOf(response.getStatusCode());
 
             if (response.getStatusCode().is2xxSuccessful()) {
                 log.info("Successfully fetched data for symbol: {}", symbol);
@@ -252,14 +264,22 @@ public class StockDataController {
             }
             return response;
         } catch (HttpClientErrorException.NotFound e) {
+            outcome = UpstreamMetrics.CLIENT_ERROR;
             log.error("Ticker not found for symbol: {}. Status code: {}", symbol, e.getStatusCode(), e);
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Ticker not found for symbol: " + symbol);
         } catch (HttpClientErrorException e) {
+            outcome = UpstreamMetrics.CLIENT_ERROR;
             log.error("Client error while fetching data for symbol: {}. Status code: {}", symbol, e.getStatusCode(), e);
             return ResponseEntity.status(e.getStatusCode()).body("Error retrieving data");
+        } catch (HttpServerErrorException e) {
+            outcome = UpstreamMetrics.SERVER_ERROR;
+            throw e;
         } catch (ResourceAccessException e) {
+            outcome = UpstreamMetrics.IO_ERROR;
             log.error("Resource access error while fetching data for symbol: {}", symbol, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error retrieving data");
+        } finally {
+            upstreamMetrics.stop(sample, url, dataType, outcome);
         }
     }
 
@@ -1,7 +1,11 @@
 package com.thompson.bullrun.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thompson.bullrun.common.JsonStreams;
+import com.thompson.bullrun.entities.PortfolioHistoryPage;
+import com.thompson.bullrun.entities.PortfolioSeries;
 import com.thompson.bullrun.entities.PortfolioValue;
-import com.thompson.bullrun.entities.StockEntity;
+import com.thompson.bullrun.entities.StockSummary;
 import com.thompson.bullrun.entities.UserEntity;
 import com.thompson.bullrun.services.StockService;
 import com.thompson.bullrun.services.UserService;
@@ -12,12 +16,16 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * UserController is a REST controller that handles HTTP requests related to UserEntity.
@@ -30,11 +38,13 @@ public class UserController {
 
     private final UserService userService;
     private final StockService stockService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public UserController(UserService userService, StockService stockService) {
+    public UserController(UserService userService, StockService stockService, ObjectMapper objectMapper) {
         this.userService = userService;
         this.stockService = stockService;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -93,34 +103,155 @@ public class UserController {
     /**
      * Handles the GET request to fetch all stocks associated with a user.
      *
-     * @return ResponseEntity containing the list of StockEntity and HTTP status.
+     * @param fields Optional subset of StockSummary fields to return, e.g. symbol,currentValue.
+     * @return ResponseEntity containing the list of StockSummary and HTTP status.
      */
     @Operation(summary = "Fetches all stocks associated with the user")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Stocks fetched successfully",
-                    content = @Content(schema = @Schema(implementation = StockEntity.class))),
+                    content = @Content(schema = @Schema(implementation = StockSummary.class))),
+            @ApiResponse(responseCode = "400", description = "Unknown field requested"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @GetMapping("/getUserStocks")
-    public ResponseEntity<List<StockEntity>> getUserStocks() {
+    public ResponseEntity<List<StockSummary>> getUserStocks(@RequestParam(required = false) List<String> fields) {
         log.info("Fetching all stocks for user");
-        return processRequest(stockService::getAllStocks, "stocks list");
+        return processRequest(() -> stockService.getStockSummaries(fields), "stocks list");
     }
 
+    /**
+     * Handles the GET request to fetch the portfolio total value over a date range.
+     *
+     * @param from      Inclusive start of the range. Without it, the most recent points up to the limit are returned.
+     * @param to        Exclusive end of the range. Defaults to no upper bound.
+     * @param limit     Maximum number of points. Defaults to portfolioHistory.maxLimit.
+     * @param maxPoints Point budget. When given, the series is read from daily points or rollups and downsampled to at most
+     *                  maxPoints points, and the granularity read is reported in the X-Granularity header.
+     * @return ResponseEntity containing the list of PortfolioValue, oldest first, and HTTP status.
+     */
     @Operation(summary = "Fetches the total value of the user's portfolio over time")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Portfolio value fetched successfully",
-                    content = @Content(schema = @Schema(implementation = UserEntity.class))),
+                    content = @Content(schema = @Schema(implementation = PortfolioValue.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid limit or maxPoints"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @GetMapping("/getPortfolioValueOverTime")
-    public ResponseEntity<List<PortfolioValue>> getPortfolioValueOverTime() {
+    public ResponseEntity<List<PortfolioValue>> getPortfolioValueOverTime(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Integer maxPoints) {
         log.info("Fetching the total value of the user's portfolio over time");
-        return processRequest(userService::pullPortfolioValueOverTime, "portfolio value over time");
+        if (maxPoints == null) {
+            return processRequest(() -> userService.pullPortfolioValueOverTime(from, to, limit), "portfolio value over time");
+        }
+        try {
+            PortfolioSeries series = userService.getPortfolioValueSeries(from, to, maxPoints);
+            return ResponseEntity.ok().header("X-Granularity", series.getGranularity()).body(series.getPoints());
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected portfolio value request: {}", e.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            log.error("Failed to fetch portfolio value over time", e);
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Handles the GET request to page through the portfolio total value history.
+     *
+     * @param from   Inclusive start of the range. Ignored when a cursor is given.
+     * @param to     Exclusive end of the range.
+     * @param limit  Page size. Defaults to portfolioHistory.maxLimit.
+     * @param cursor nextCursor from the previous page.
+     * @return ResponseEntity containing the page and HTTP status.
+     */
+    @Operation(summary = "Pages through the portfolio value history with a cursor")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Portfolio history page fetched successfully",
+                    content = @Content(schema = @Schema(implementation = PortfolioHistoryPage.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid limit or cursor"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/portfolioHistory")
+    public ResponseEntity<PortfolioHistoryPage> getPortfolioHistory(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
+        log.info("Fetching portfolio history page from {} to {} (limit {}, cursor {})", from, to, limit, cursor);
+        return processRequest(() -> userService.getPortfolioHistory(from, to, limit, cursor), "portfolio history page");
+    }
+
+    /**
+     * Streaming variant of getUserList, selected by the stream parameter.
+     *
+     * @param stream json for a JSON array or ndjson for one user per line.
+     * @return ResponseEntity whose body is written from a Mongo cursor.
+     */
+    @Operation(summary = "Streams the list of all users as JSON or NDJSON")
+    @GetMapping(value = "/getUserList", params = "stream")
+    public ResponseEntity<StreamingResponseBody> streamUserList(@RequestParam String stream) {
+        log.info("Streaming the list of all users as {}", stream);
+        return streamRequest(stream, userService::streamUsers, "user list");
+    }
+
+    /**
+     * Streaming variant of getUserStocks, selected by the stream parameter.
+     *
+     * @param stream json for a JSON array or ndjson for one stock per line.
+     * @param fields Optional subset of StockSummary fields to return.
+     * @return ResponseEntity whose body is written from a Mongo cursor.
+     */
+    @Operation(summary = "Streams all stocks associated with the user as JSON or NDJSON")
+    @GetMapping(value = "/getUserStocks", params = "stream")
+    public ResponseEntity<StreamingResponseBody> streamUserStocks(@RequestParam String stream,
+                                                                  @RequestParam(required = false) List<String> fields) {
+        log.info("Streaming all stocks for user as {}", stream);
+        try {
+            stockService.requireSelectableFields(fields);
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected request for stocks list: {}", e.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return streamRequest(stream, () -> stockService.streamStockSummaries(fields), "stocks list");
+    }
+
+    /**
+     * Streaming variant of getPortfolioValueOverTime, selected by the stream parameter. Returns every point in the range.
+     *
+     * @param stream json for a JSON array or ndjson for one point per line.
+     * @param from   Inclusive start of the range.
+     * @param to     Exclusive end of the range.
+     * @return ResponseEntity whose body is written from a Mongo cursor.
+     */
+    @Operation(summary = "Streams the portfolio value history as JSON or NDJSON")
+    @GetMapping(value = "/getPortfolioValueOverTime", params = "stream")
+    public ResponseEntity<StreamingResponseBody> streamPortfolioValueOverTime(
+            @RequestParam String stream,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("Streaming portfolio value over time from {} to {} as {}", from, to, stream);
+        return streamRequest(stream, () -> userService.streamPortfolioValues(from, to), "portfolio value over time");
+    }
+
+    /**
+     * Streams the elements opened by the source in the requested format. The source is only opened once the
+     * response body is written, and its cursor is closed when writing ends.
+     */
+    private <T> ResponseEntity<StreamingResponseBody> streamRequest(String stream, Supplier<Stream<T>> source, String dataType) {
+        try {
+            return JsonStreams.response(JsonStreams.Format.parse(stream), source, objectMapper);
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected request for {}: {}", dataType, e.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
     }
 
     /**
      * Utility method to process a request and handle exceptions consistently.
+     * Invalid request parameters, reported as IllegalArgumentException, map to 400; anything else maps to 500.
      *
      * @param action   Supplier that provides the data to be returned in ResponseEntity.
      * @param dataType A descriptive string for the data being fetched, used in logging.
@@ -132,6 +263,9 @@ public class UserController {
             T data = action.get();
             log.info("Successfully fetched {}", dataType);
             return new ResponseEntity<>(data, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected request for {}: {}", dataType, e.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             log.error("Failed to fetch {}", dataType, e);
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
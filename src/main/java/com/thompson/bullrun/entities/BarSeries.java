@@ -0,0 +1,24 @@
+package com.thompson.bullrun.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Daily bars of one symbol in ascending date order, held as parallel primitive arrays.
+ * {@code days} are epoch days; index i of every array describes the same bar.
+ */
+@Getter
+@AllArgsConstructor
+public class BarSeries {
+    private final String symbol;
+    private final int[] days;
+    private final double[] open;
+    private final double[] high;
+    private final double[] low;
+    private final double[] close;
+    private final long[] volume;
+
+    public int size() {
+        return days.length;
+    }
+}
@@ -0,0 +1,20 @@
+package com.thompson.bullrun.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+/**
+ * Open, high, low, close and volume of one symbol on one trading day.
+ */
+@Getter
+@AllArgsConstructor
+public class DailyBar {
+    private final LocalDate date;
+    private final double open;
+    private final double high;
+    private final double low;
+    private final double close;
+    private final long volume;
+}
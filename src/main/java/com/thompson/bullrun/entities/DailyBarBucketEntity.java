@@ -0,0 +1,42 @@
+package com.thompson.bullrun.entities;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * One month of daily bars for one symbol. Bars are stored column-wise in parallel arrays, where index i of every
+ * array describes the same day, so a year of one symbol is twelve small documents instead of ~250.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Document(collection = "DailyBarBucket")
+@CompoundIndex(name = "symbol_month", def = "{'symbol': 1, 'month': 1}")
+public class DailyBarBucketEntity {
+
+    /**
+     * Symbol and month, e.g. AAPL:2024-05.
+     */
+    @Id
+    private String id;
+    private String symbol;
+
+    /**
+     * Month of the bucket as yyyy-MM, which sorts chronologically as a string.
+     */
+    private String month;
+
+    /**
+     * Epoch day of each bar. Bars are appended in refresh order, so readers sort by this column.
+     */
+    private int[] days;
+    private double[] open;
+    private double[] high;
+    private double[] low;
+    private double[] close;
+    private long[] volume;
+}
@@ -0,0 +1,41 @@
+package com.thompson.bullrun.entities;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * Unrealized gain or loss of one holding at its latest price. Amounts are in dollars rounded to cents; percentages are
+ * fractions (0.05 is 5%) and are omitted when their base is zero.
+ */
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class HoldingPnl {
+    private final String symbol;
+    private final int sharesOwned;
+
+    /**
+     * Cost per share.
+     */
+    private final double costBasis;
+    private final double previousClose;
+    private final double price;
+    private final double marketValue;
+    private final double costValue;
+    private final double unrealizedGain;
+    private final Double unrealizedGainPercent;
+
+    /**
+     * Change in market value since the previous close.
+     */
+    private final double dailyChange;
+    private final Double dailyChangePercent;
+
+    /**
+     * When the price last moved, or null while the holding is still valued at its previous close.
+     */
+    private final Instant priceUpdatedAt;
+}
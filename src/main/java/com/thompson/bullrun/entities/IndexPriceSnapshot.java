@@ -0,0 +1,31 @@
+package com.thompson.bullrun.entities;
+
+import lombok.Getter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the formatted major index prices and the time each price was fetched.
+ * A price carried over from an earlier refresh keeps the time it was fetched, so the snapshot is as old as its
+ * stalest price.
+ */
+@Getter
+public class IndexPriceSnapshot {
+    private final Map<String, String> prices;
+    private final Map<String, Instant> refreshedAtBySymbol;
+    private final Instant refreshedAt;
+
+    public IndexPriceSnapshot(Map<String, String> prices, Map<String, Instant> refreshedAtBySymbol) {
+        this.prices = Collections.unmodifiableMap(new LinkedHashMap<>(prices));
+        this.refreshedAtBySymbol = Collections.unmodifiableMap(new LinkedHashMap<>(refreshedAtBySymbol));
+        this.refreshedAt = refreshedAtBySymbol.values().stream().min(Instant::compareTo).orElse(null);
+    }
+
+    public Duration age(Instant now) {
+        return refreshedAt == null ? null : Duration.between(refreshedAt, now);
+    }
+}
@@ -0,0 +1,36 @@
+package com.thompson.bullrun.entities;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * A company logo stored once per distinct image. The id is the SHA-256 hash of the image bytes,
+ * so stocks sharing the same image (including the default logo) point at the same document.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Document(collection = "Logo")
+public class LogoEntity {
+
+    /**
+     * Hex-encoded SHA-256 hash of the image bytes.
+     */
+    @Id
+    private String id;
+    private byte[] image;
+    private String contentType;
+    private int size;
+    private LocalDateTime createdAt;
+
+    /**
+     * PNG thumbnails generated at ingest time, keyed by their maximum edge length in pixels.
+     */
+    private Map<String, byte[]> thumbnails;
+}
@@ -0,0 +1,22 @@
+package com.thompson.bullrun.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Analytics of the current holdings over a date range. The portfolio figures are for the current share counts held
+ * through the whole range, with each holding joining from its first stored bar.
+ */
+@Getter
+@AllArgsConstructor
+public class PortfolioAnalytics {
+    private final LocalDate from;
+    private final LocalDate to;
+    private final String benchmark;
+    private final int rollingWindow;
+    private final ReturnMetrics portfolio;
+    private final List<ReturnMetrics> holdings;
+}
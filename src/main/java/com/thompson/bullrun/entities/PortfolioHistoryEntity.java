@@ -0,0 +1,36 @@
+package com.thompson.bullrun.entities;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.TimeSeries;
+import org.springframework.data.mongodb.core.timeseries.Granularity;
+
+import java.time.LocalDateTime;
+
+/**
+ * One point of the portfolio total value, written after every price refresh.
+ * Stored in a Mongo time-series collection so range scans over dates stay cheap as history grows.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Document(collection = "PortfolioHistory")
+@TimeSeries(timeField = "date", granularity = Granularity.HOURS)
+public class PortfolioHistoryEntity {
+
+    @Id
+    private String id;
+
+    /**
+     * When the total was recorded.
+     */
+    private LocalDateTime date;
+
+    /**
+     * The total value of all stocks at that time.
+     */
+    private double totalValue;
+}
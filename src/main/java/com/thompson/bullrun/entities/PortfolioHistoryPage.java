@@ -0,0 +1,17 @@
+package com.thompson.bullrun.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * A page of portfolio history points in ascending date order.
+ * {@code nextCursor} is passed back as {@code cursor} to fetch the following page and is null on the last page.
+ */
+@Getter
+@AllArgsConstructor
+public class PortfolioHistoryPage {
+    private final List<PortfolioValue> points;
+    private final String nextCursor;
+}
@@ -0,0 +1,27 @@
+package com.thompson.bullrun.entities;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Unrealized gain or loss of the whole portfolio, with the same units as {@link HoldingPnl}.
+ * The holdings are only included when requested.
+ */
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PortfolioPnl {
+    private final int holdingCount;
+    private final double marketValue;
+    private final double costValue;
+    private final double unrealizedGain;
+    private final Double unrealizedGainPercent;
+    private final double dailyChange;
+    private final Double dailyChangePercent;
+    private final Instant updatedAt;
+    private final List<HoldingPnl> holdings;
+}
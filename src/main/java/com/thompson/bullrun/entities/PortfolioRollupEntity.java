@@ -0,0 +1,45 @@
+package com.thompson.bullrun.entities;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Open/high/low/close of the portfolio total value over one week, month or year.
+ * Rows are upserted every time a daily total is recorded, so long-range charts read a handful of rows instead of every daily point.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Document(collection = "PortfolioRollup")
+@CompoundIndex(name = "granularity_periodStart", def = "{'granularity': 1, 'periodStart': 1}", unique = true)
+public class PortfolioRollupEntity {
+
+    /**
+     * Granularity and period start, e.g. MONTH:2024-05-01.
+     */
+    @Id
+    private String id;
+    private RollupGranularity granularity;
+    private LocalDateTime periodStart;
+    private double open;
+    private double high;
+    private double low;
+    private double close;
+
+    /**
+     * Dates of the first and last daily totals folded into this period.
+     */
+    private LocalDateTime firstDate;
+    private LocalDateTime lastDate;
+
+    /**
+     * Number of daily totals folded into this period.
+     */
+    private long count;
+}
@@ -0,0 +1,17 @@
+package com.thompson.bullrun.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Portfolio values read at a single granularity: DAY for the raw daily totals, otherwise one of {@link RollupGranularity}.
+ * Rollup points are dated at the start of their period and carry its closing value.
+ */
+@Getter
+@AllArgsConstructor
+public class PortfolioSeries {
+    private final String granularity;
+    private final List<PortfolioValue> points;
+}
@@ -0,0 +1,27 @@
+package com.thompson.bullrun.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Result of a quote lookup for a single symbol. Either a price or an error message is present.
+ */
+@Getter
+@AllArgsConstructor
+public class QuoteResult {
+    private final String symbol;
+    private final Double price;
+    private final String error;
+
+    public static QuoteResult success(String symbol, double price) {
+        return new QuoteResult(symbol, price, null);
+    }
+
+    public static QuoteResult failure(String symbol, String error) {
+        return new QuoteResult(symbol, null, error);
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
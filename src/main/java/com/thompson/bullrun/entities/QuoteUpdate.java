@@ -0,0 +1,15 @@
+package com.thompson.bullrun.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A price update pushed to streaming subscribers.
+ */
+@Getter
+@AllArgsConstructor
+public class QuoteUpdate {
+    private final String symbol;
+    private final double price;
+    private final long timestamp;
+}
@@ -0,0 +1,29 @@
+package com.thompson.bullrun.entities;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Return and risk statistics of the portfolio or one holding over an analysis range. Returns, volatilities and
+ * drawdowns are fractions (0.12 is 12%); volatilities and the Sharpe ratio are annualized.
+ * Statistics that cannot be computed, e.g. with fewer than two daily returns, are omitted from the JSON.
+ */
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ReturnMetrics {
+    private final String symbol;
+    private final int observations;
+    private final Double totalReturn;
+    private final Double annualizedReturn;
+    private final Double volatility;
+
+    /**
+     * Volatility over the trailing rolling window ending at the last day of the range.
+     */
+    private final Double rollingVolatility;
+    private final Double maxDrawdown;
+    private final Double beta;
+    private final Double sharpe;
+}
@@ -0,0 +1,25 @@
+package com.thompson.bullrun.entities;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Period lengths the portfolio value is rolled up into, from finest to coarsest.
+ */
+public enum RollupGranularity {
+    WEEK,
+    MONTH,
+    YEAR;
+
+    /**
+     * Returns the first day of the period containing the date. Weeks start on Monday.
+     */
+    public LocalDate periodStart(LocalDate date) {
+        return switch (this) {
+            case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> date.withDayOfMonth(1);
+            case YEAR -> date.withDayOfYear(1);
+        };
+    }
+}
@@ -16,12 +16,27 @@ public class StockEntity {
 
     @Id
     private String id;
+    /**
+     * Unique once StockIndexMigrationService has created its index; not declared here, since older data may hold duplicates.
+     */
     private String symbol;
     private String name;
     private double costBasis;
     private double closePrice;
-    private byte[] logoImage;
+    /**
+     * Content hash of the company logo in the logo store. The image bytes live in the Logo collection.
+     */
+    private String logoHash;
+    private String logoUrl;
+    private String logoETag;
+    private String logoLastModified;
+    private LocalDateTime logoCheckedAt;
     private int sharesOwned;
     private double currentValue;
     private LocalDateTime timestamp;
+    /**
+     * Incremented by every partial update in StockRepositoryCustom and used as the optimistic lock for read-modify-write
+     * updates. Documents written before versioning have no version field and read as 0.
+     */
+    private long version;
 }
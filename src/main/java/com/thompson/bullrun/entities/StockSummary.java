@@ -0,0 +1,37 @@
+package com.thompson.bullrun.entities;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.Set;
+
+/**
+ * Read model of a holding for portfolio views, projected from the Stock collection so Mongo only returns these fields.
+ * Fields left out by a field selection stay null and are omitted from the JSON.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class StockSummary {
+
+    /**
+     * Field names that can be selected.
+     */
+    public static final Set<String> FIELDS = Set.of("symbol", "name", "sharesOwned", "closePrice", "currentValue", "costBasis", "logoHash");
+
+    private String symbol;
+    private String name;
+    private Integer sharesOwned;
+    private Double closePrice;
+    private Double currentValue;
+    private Double costBasis;
+    /**
+     * Content hash of the logo, served by /logos/{hash}.
+     */
+    private String logoHash;
+}
@@ -0,0 +1,10 @@
+package com.thompson.bullrun.repositories;
+
+import com.thompson.bullrun.entities.LogoEntity;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+/**
+ * LogoRepository stores content-addressed logo images keyed by their SHA-256 hash.
+ */
+public interface LogoRepository extends MongoRepository<LogoEntity, String> {
+}
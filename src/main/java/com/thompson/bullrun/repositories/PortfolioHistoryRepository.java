@@ -0,0 +1,29 @@
+package com.thompson.bullrun.repositories;
+
+import com.thompson.bullrun.entities.PortfolioHistoryEntity;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * PortfolioHistoryRepository reads and writes portfolio total values in the PortfolioHistory time-series collection.
+ * Range queries are half-open and ordered by date, then id, so points recorded at the same time keep a stable order.
+ * Continuing after a cursor comes from {@link PortfolioHistoryRepositoryCustom}.
+ */
+public interface PortfolioHistoryRepository extends MongoRepository<PortfolioHistoryEntity, String>, PortfolioHistoryRepositoryCustom {
+
+    List<PortfolioHistoryEntity> findByDateGreaterThanEqualAndDateLessThanOrderByDateAscIdAsc(LocalDateTime from, LocalDateTime to, Limit limit);
+
+    /**
+     * The most recent points before the upper bound, newest first.
+     */
+    List<PortfolioHistoryEntity> findByDateLessThanOrderByDateDescIdDesc(LocalDateTime to, Limit limit);
+
+    /**
+     * Streams the range from a cursor. The stream must be closed to release the cursor.
+     */
+    Stream<PortfolioHistoryEntity> streamByDateGreaterThanEqualAndDateLessThanOrderByDateAsc(LocalDateTime from, LocalDateTime to);
+}
@@ -0,0 +1,23 @@
+package com.thompson.bullrun.repositories;
+
+import com.thompson.bullrun.entities.PortfolioHistoryEntity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Keyset paging over the portfolio history. Points are ordered by (date, id), so a page boundary that falls between
+ * points recorded at the same time neither skips nor repeats any of them.
+ */
+public interface PortfolioHistoryRepositoryCustom {
+
+    /**
+     * Points after the (date, id) key and before the upper bound, oldest first.
+     *
+     * @param afterDate date of the last point already returned
+     * @param afterId   id of the last point already returned, or null to continue after every point at afterDate
+     * @param to        exclusive upper bound
+     * @param limit     maximum number of points
+     */
+    List<PortfolioHistoryEntity> findAfter(LocalDateTime afterDate, String afterId, LocalDateTime to, int limit);
+}
@@ -0,0 +1,35 @@
+package com.thompson.bullrun.repositories;
+
+import com.thompson.bullrun.entities.PortfolioHistoryEntity;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * MongoTemplate implementation of {@link PortfolioHistoryRepositoryCustom}, picked up by Spring Data through the Impl suffix.
+ */
+class PortfolioHistoryRepositoryImpl implements PortfolioHistoryRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    PortfolioHistoryRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<PortfolioHistoryEntity> findAfter(LocalDateTime afterDate, String afterId, LocalDateTime to, int limit) {
+        Criteria after = afterId == null
+                ? Criteria.where("date").gt(afterDate)
+                : new Criteria().orOperator(
+                        Criteria.where("date").gt(afterDate),
+                        new Criteria().andOperator(Criteria.where("date").is(afterDate), Criteria.where("id").gt(afterId)));
+        Query query = new Query(new Criteria().andOperator(after, Criteria.where("date").lt(to)))
+                .with(Sort.by("date", "id"))
+                .limit(limit);
+        return mongoTemplate.find(query, PortfolioHistoryEntity.class);
+    }
+}
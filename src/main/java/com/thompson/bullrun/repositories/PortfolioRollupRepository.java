@@ -0,0 +1,20 @@
+package com.thompson.bullrun.repositories;
+
+import com.thompson.bullrun.entities.PortfolioRollupEntity;
+import com.thompson.bullrun.entities.RollupGranularity;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * PortfolioRollupRepository reads weekly, monthly and yearly portfolio value rollups.
+ * Writes go through PortfolioRollupService, which upserts them incrementally.
+ */
+public interface PortfolioRollupRepository extends MongoRepository<PortfolioRollupEntity, String> {
+
+    List<PortfolioRollupEntity> findByGranularityAndPeriodStartGreaterThanEqualAndPeriodStartLessThanOrderByPeriodStartAsc(
+            RollupGranularity granularity, LocalDateTime from, LocalDateTime to);
+
+    long countByGranularityAndPeriodStartGreaterThanEqualAndPeriodStartLessThan(RollupGranularity granularity, LocalDateTime from, LocalDateTime to);
+}
@@ -9,9 +9,17 @@ import java.util.Optional;
  * StockRepository is an interface that extends MongoRepository.
  * It provides the mechanism for storage, retrieval, and search behavior
  * which emulates a collection of objects.
+ * Partial, versioned updates of single stocks come from {@link StockRepositoryCustom}.
  */
-public interface StockRepository extends MongoRepository<StockEntity, String> {
+public interface StockRepository extends MongoRepository<StockEntity, String>, StockRepositoryCustom {
     Optional<StockEntity> findBySymbol(String symbol);
 
-    void deleteBySymbol(String symbol);
+    Optional<StockEntity> findFirstByOrderByTimestampDesc();
+
+    /**
+     * Deletes the stock in a single round trip.
+     *
+     * @return the number of stocks deleted, 0 if none had the symbol
+     */
+    long deleteBySymbol(String symbol);
 }
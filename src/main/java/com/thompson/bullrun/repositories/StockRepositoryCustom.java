@@ -0,0 +1,37 @@
+package com.thompson.bullrun.repositories;
+
+import com.thompson.bullrun.entities.StockEntity;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Partial updates of single stocks. Each call sends only the fields it changes and increments the stock's version,
+ * so it cannot overwrite fields written concurrently by another update.
+ */
+public interface StockRepositoryCustom {
+
+    /**
+     * Inserts a new stock. The id is generated and the version starts at 0 on the server, whatever the entity carries;
+     * both are set on the entity afterwards.
+     *
+     * @throws org.springframework.dao.DuplicateKeyException if a stock with the symbol already exists
+     */
+    void insertStock(StockEntity stock);
+
+    /**
+     * Sets the price, shares owned and the resulting current value in one atomic update.
+     *
+     * @return true if a stock with the symbol exists
+     */
+    boolean updatePriceAndShares(String symbol, double closePrice, int sharesOwned, double currentValue, LocalDateTime timestamp);
+
+    /**
+     * Sets the shares owned and recomputes the current value from the stored close price.
+     * Uses the version as an optimistic lock and retries when another update wins the race.
+     *
+     * @return the updated stock, or empty if no stock with the symbol exists
+     * @throws org.springframework.dao.OptimisticLockingFailureException if every retry lost the race
+     */
+    Optional<StockEntity> updateSharesOwned(String symbol, int sharesOwned);
+}
@@ -0,0 +1,99 @@
+package com.thompson.bullrun.repositories;
+
+import com.thompson.bullrun.common.ValuationKernel;
+import com.thompson.bullrun.entities.StockEntity;
+import com.mongodb.client.result.UpdateResult;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * MongoTemplate implementation of {@link StockRepositoryCustom}, picked up by Spring Data through the Impl suffix.
+ */
+@Slf4j
+class StockRepositoryImpl implements StockRepositoryCustom {
+
+    private static final int MAX_ATTEMPTS = 5;
+
+    private final MongoTemplate mongoTemplate;
+
+    StockRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void insertStock(StockEntity stock) {
+        Document fields = new Document();
+        mongoTemplate.getConverter().write(stock, fields);
+        // The symbol comes from the query; id and version are the server's to assign
+        fields.remove("_id");
+        fields.remove("symbol");
+        fields.remove("version");
+        Update update = new Update().setOnInsert("version", 0L);
+        fields.forEach(update::setOnInsert);
+
+        // A concurrent insert of the same symbol loses on the unique symbol index and throws DuplicateKeyException itself
+        UpdateResult result = mongoTemplate.upsert(bySymbol(stock.getSymbol()), update, StockEntity.class);
+        if (result.getUpsertedId() == null) {
+            throw new DuplicateKeyException("Stock " + stock.getSymbol() + " already exists");
+        }
+        stock.setId(result.getUpsertedId().asObjectId().getValue().toHexString());
+        stock.setVersion(0);
+    }
+
+    @Override
+    public boolean updatePriceAndShares(String symbol, double closePrice, int sharesOwned, double currentValue, LocalDateTime timestamp) {
+        Update update = new Update()
+                .set("closePrice", closePrice)
+                .set("sharesOwned", sharesOwned)
+                .set("currentValue", currentValue)
+                .set("timestamp", timestamp)
+                .inc("version", 1);
+        return mongoTemplate.updateFirst(bySymbol(symbol), update, StockEntity.class).getMatchedCount() > 0;
+    }
+
+    @Override
+    public Optional<StockEntity> updateSharesOwned(String symbol, int sharesOwned) {
+        Query read = bySymbol(symbol);
+        read.fields().include("closePrice", "sharesOwned", "version");
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            StockEntity current = mongoTemplate.findOne(read, StockEntity.class);
+            if (current == null) {
+                return Optional.empty();
+            }
+
+            double currentValue = ValuationKernel.toDouble(ValuationKernel.value(current.getClosePrice(), sharesOwned, 2));
+            Update update = new Update()
+                    .set("sharesOwned", sharesOwned)
+                    .set("currentValue", currentValue)
+                    .inc("version", 1);
+            StockEntity updated = mongoTemplate.findAndModify(atVersion(symbol, current.getVersion()), update,
+                    FindAndModifyOptions.options().returnNew(true), StockEntity.class);
+            if (updated != null) {
+                return Optional.of(updated);
+            }
+            log.debug("Stock {} changed since version {} was read (attempt {} of {}). Retrying.", symbol, current.getVersion(), attempt, MAX_ATTEMPTS);
+        }
+        throw new OptimisticLockingFailureException("Stock " + symbol + " kept changing; gave up after " + MAX_ATTEMPTS + " attempts");
+    }
+
+    private static Query bySymbol(String symbol) {
+        return new Query(Criteria.where("symbol").is(symbol));
+    }
+
+    private static Query atVersion(String symbol, long version) {
+        Criteria versionMatches = version == 0
+                ? new Criteria().orOperator(Criteria.where("version").is(0), Criteria.where("version").exists(false))
+                : Criteria.where("version").is(version);
+        return new Query(new Criteria().andOperator(Criteria.where("symbol").is(symbol), versionMatches));
+    }
+}
@@ -3,6 +3,8 @@ package com.thompson.bullrun.repositories;
 import com.thompson.bullrun.entities.UserEntity;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
+import java.util.stream.Stream;
+
 /**
  * UserRepository is an interface that extends MongoRepository.
  * It provides the mechanism for storage, retrieval, and search behavior
@@ -13,4 +15,9 @@ import org.springframework.data.mongodb.repository.MongoRepository;
  * @since 2024.1.4
  */
 public interface UserRepository extends MongoRepository<UserEntity, String> {
+
+    /**
+     * Streams every user from a cursor. The stream must be closed to release the cursor.
+     */
+    Stream<UserEntity> streamAllBy();
 }
\ No newline at end of file
@@ -0,0 +1,233 @@
+package com.thompson.bullrun.services;
+
+import com.thompson.bullrun.entities.BarSeries;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Daily bars of one symbol in a fixed-width binary file, read and written through a memory mapping.
+ * <p>
+ * Layout, little endian: a 16-byte header (magic, format version, bar count, reserved) followed by 48-byte records
+ * (epoch day, padding, open, high, low, close, volume) in ascending day order. Records are 8-byte aligned, so every
+ * value is a single aligned load. The file is mapped with spare capacity; the count in the header, not the file length,
+ * says how many records are valid.
+ * <p>
+ * Scans read the mapping in place. Readers share a read lock; appends take the write lock, so a reader never sees a
+ * half-written record or a remap.
+ */
+final class BarFile {
+
+    static final int HEADER_BYTES = 16;
+    static final int RECORD_BYTES = 48;
+
+    private static final int MAGIC = 0x42415253; // "BARS"
+    private static final int VERSION = 1;
+    private static final int COUNT_OFFSET = 8;
+    private static final int MIN_CAPACITY = 256;
+
+    private final Path path;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private MappedByteBuffer buffer;
+    private int capacity;
+    private int count;
+
+    private BarFile(Path path, MappedByteBuffer buffer, int capacity, int count) {
+        this.path = path;
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.count = count;
+    }
+
+    /**
+     * Opens an existing bar file, or creates an empty one.
+     *
+     * @throws IOException if the file cannot be mapped or is not a bar file of this format
+     */
+    static BarFile open(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return create(path, MIN_CAPACITY);
+        }
+        long size = Files.size(path);
+        if (size < HEADER_BYTES || (size - HEADER_BYTES) % RECORD_BYTES != 0) {
+            throw new IOException("Not a bar file: " + path);
+        }
+        int capacity = (int) ((size - HEADER_BYTES) / RECORD_BYTES);
+        MappedByteBuffer buffer = map(path, capacity);
+        int count = buffer.getInt(COUNT_OFFSET);
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || count < 0 || count > capacity) {
+            throw new IOException("Not a bar file of version " + VERSION + ": " + path);
+        }
+        return new BarFile(path, buffer, capacity, count);
+    }
+
+    /**
+     * Writes the series to a new file, replacing any existing one.
+     */
+    static BarFile write(Path path, BarSeries series) throws IOException {
+        Files.deleteIfExists(path);
+        BarFile file = create(path, Math.max(MIN_CAPACITY, series.size() + series.size() / 2));
+        for (int i = 0; i < series.size(); i++) {
+            file.writeRecord(i, series.getDays()[i], series.getOpen()[i], series.getHigh()[i], series.getLow()[i],
+                    series.getClose()[i], series.getVolume()[i]);
+        }
+        file.count = series.size();
+        file.buffer.putInt(COUNT_OFFSET, file.count);
+        return file;
+    }
+
+    private static BarFile create(Path path, int capacity) throws IOException {
+        MappedByteBuffer buffer = map(path, capacity);
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(COUNT_OFFSET, 0);
+        return new BarFile(path, buffer, capacity, 0);
+    }
+
+    private static MappedByteBuffer map(Path path, int capacity) throws IOException {
+        // The mapping stays valid after the channel is closed
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) capacity * RECORD_BYTES);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            return buffer;
+        }
+    }
+
+    /**
+     * Stores a bar, replacing the bar of the same day if there is one. Bars for days after the last one are appended;
+     * earlier days are inserted in order.
+     */
+    void put(int day, double open, double high, double low, double close, long volume) throws IOException {
+        lock.writeLock().lock();
+        try {
+            int index = count > 0 && dayAt(count - 1) < day ? count : lowerBound(day);
+            if (index < count && dayAt(index) == day) {
+                writeRecord(index, day, open, high, low, close, volume);
+                return;
+            }
+            if (count == capacity) {
+                capacity = Math.max(MIN_CAPACITY, capacity * 2);
+                buffer = map(path, capacity);
+            }
+            // Shift later records up by one; only happens for a late bar of an earlier day
+            for (int i = count - 1; i >= index; i--) {
+                int from = offset(i);
+                for (int b = 0; b < RECORD_BYTES; b += Long.BYTES) {
+                    buffer.putLong(from + RECORD_BYTES + b, buffer.getLong(from + b));
+                }
+            }
+            writeRecord(index, day, open, high, low, close, volume);
+            count++;
+            buffer.putInt(COUNT_OFFSET, count);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Visits every bar between the two epoch days, inclusive, in ascending day order, straight from the mapping.
+     *
+     * @return number of bars visited
+     */
+    int scan(int fromDay, int toDay, LocalBarCache.BarVisitor visitor) {
+        lock.readLock().lock();
+        try {
+            int visited = 0;
+            for (int i = lowerBound(fromDay); i < count; i++) {
+                int base = offset(i);
+                int day = buffer.getInt(base);
+                if (day > toDay) {
+                    break;
+                }
+                visitor.visit(day, buffer.getDouble(base + 8), buffer.getDouble(base + 16), buffer.getDouble(base + 24),
+                        buffer.getDouble(base + 32), buffer.getLong(base + 40));
+                visited++;
+            }
+            return visited;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Copies the bars between the two epoch days, inclusive, into a series.
+     */
+    BarSeries read(String symbol, int fromDay, int toDay) {
+        lock.readLock().lock();
+        try {
+            int start = lowerBound(fromDay);
+            int end = toDay == Integer.MAX_VALUE ? count : lowerBound(toDay + 1);
+            int length = Math.max(0, end - start);
+            int[] days = new int[length];
+            double[] open = new double[length];
+            double[] high = new double[length];
+            double[] low = new double[length];
+            double[] close = new double[length];
+            long[] volume = new long[length];
+            for (int i = 0; i < length; i++) {
+                int base = offset(start + i);
+                days[i] = buffer.getInt(base);
+                open[i] = buffer.getDouble(base + 8);
+                high[i] = buffer.getDouble(base + 16);
+                low[i] = buffer.getDouble(base + 24);
+                close[i] = buffer.getDouble(base + 32);
+                volume[i] = buffer.getLong(base + 40);
+            }
+            return new BarSeries(symbol, days, open, high, low, close, volume);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void writeRecord(int index, int day, double open, double high, double low, double close, long volume) {
+        int base = offset(index);
+        buffer.putInt(base, day);
+        buffer.putInt(base + 4, 0);
+        buffer.putDouble(base + 8, open);
+        buffer.putDouble(base + 16, high);
+        buffer.putDouble(base + 24, low);
+        buffer.putDouble(base + 32, close);
+        buffer.putLong(base + 40, volume);
+    }
+
+    /**
+     * Index of the first record on or after the day.
+     */
+    private int lowerBound(int day) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (dayAt(mid) < day) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int dayAt(int index) {
+        return buffer.getInt(offset(index));
+    }
+
+    private static int offset(int index) {
+        return HEADER_BYTES + index * RECORD_BYTES;
+    }
+}
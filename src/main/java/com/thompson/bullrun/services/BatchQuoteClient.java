@@ -0,0 +1,192 @@
+package com.thompson.bullrun.services;
+
+import com.thompson.bullrun.common.UpstreamMetrics;
+import com.thompson.bullrun.config.ApiProperties;
+import com.thompson.bullrun.entities.DailyBar;
+import com.thompson.bullrun.entities.QuoteResult;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * BatchQuoteClient fetches prices and daily bars for many symbols at once from the TwelveData price and quote endpoints,
+ * which accept a comma-separated symbol list. Symbols are split into provider-sized chunks
+ * and each symbol gets its own result, so one bad ticker does not fail the whole batch.
+ */
+@Slf4j
+@Service
+public class BatchQuoteClient {
+
+    private final RestTemplate restTemplate;
+    private final ApiProperties apiProperties;
+    private final int batchSize;
+    private final UpstreamMetrics upstreamMetrics;
+
+    public BatchQuoteClient(RestTemplate restTemplate, ApiProperties apiProperties, @Value("${quote.batchSize:120}") int batchSize,
+                            UpstreamMetrics upstreamMetrics) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("quote.batchSize must be at least 1");
+        }
+        this.restTemplate = restTemplate;
+        this.apiProperties = apiProperties;
+        this.batchSize = batchSize;
+        this.upstreamMetrics = upstreamMetrics;
+    }
+
+    /**
+     * Fetches the price of a single symbol.
+     *
+     * @param symbol stock or index symbol
+     * @return the quote result for the symbol
+     */
+    public QuoteResult fetchPrice(String symbol) {
+        return fetchPrices(List.of(symbol)).get(symbol);
+    }
+
+    /**
+     * Fetches prices for all given symbols, one request per chunk.
+     *
+     * @param symbols symbols to look up, duplicates are ignored
+     * @return results keyed by symbol, in the order the symbols were given
+     */
+    public Map<String, QuoteResult> fetchPrices(Collection<String> symbols) {
+        return fetchAll(symbols, apiProperties.getStockPriceURL(), "batchPrice", this::parseQuote, QuoteResult::failure);
+    }
+
+    /**
+     * Fetches the latest daily bar (open, high, low, close, volume) of all given symbols from the quote endpoint,
+     * one request per chunk. Symbols the provider has no valid quote for are logged and left out.
+     *
+     * @param symbols symbols to look up, duplicates are ignored
+     * @return bars keyed by symbol, in the order the symbols were given
+     */
+    public Map<String, DailyBar> fetchDailyBars(Collection<String> symbols) {
+        Map<String, DailyBar> bars = new LinkedHashMap<>();
+        fetchAll(symbols, apiProperties.getDailyQuoteURL(), "batchQuote", this::parseBar, (symbol, error) -> {
+            log.warn("No daily bar for symbol: {} ({})", symbol, error);
+            return null;
+        }).forEach((symbol, bar) -> {
+            if (bar != null) {
+                bars.put(symbol, bar);
+            }
+        });
+        return bars;
+    }
+
+    private <T> Map<String, T> fetchAll(Collection<String> symbols, String urlTemplate, String endpoint,
+                                        BiFunction<String, JSONObject, T> parser, BiFunction<String, String, T> failure) {
+        List<String> distinctSymbols = new ArrayList<>(new LinkedHashSet<>(symbols));
+        Map<String, T> results = new LinkedHashMap<>();
+        for (int from = 0; from < distinctSymbols.size(); from += batchSize) {
+            List<String> chunk = distinctSymbols.subList(from, Math.min(from + batchSize, distinctSymbols.size()));
+            results.putAll(fetchChunk(chunk, urlTemplate, endpoint, parser, failure));
+        }
+        log.info("Fetched {} for {} symbols in {} request(s)", endpoint, distinctSymbols.size(), (distinctSymbols.size() + batchSize - 1) / batchSize);
+        return results;
+    }
+
+    private <T> Map<String, T> fetchChunk(List<String> chunk, String urlTemplate, String endpoint,
+                                          BiFunction<String, JSONObject, T> parser, BiFunction<String, String, T> failure) {
+        Map<String, T> results = new LinkedHashMap<>();
+        Timer.Sample sample = upstreamMetrics.start();
+        String outcome = UpstreamMetrics.IO_ERROR;
+        try {
+            String apiUrl = urlTemplate
+                    .replace("{symbol}", String.join(",", chunk))
+                    .replace("{apiKey}", apiProperties.getTwelveDataAPIKey());
+            String response = restTemplate.getForObject(apiUrl, String.class);
+            outcome = UpstreamMetrics.SUCCESS;
+            if (response == null || response.isBlank()) {
+                chunk.forEach(symbol -> results.put(symbol, failure.apply(symbol, "Empty response from provider")));
+                return results;
+            }
+
+            JSONObject json = new JSONObject(response);
+            if (isError(json)) {
+                String error = json.optString("message", "Provider returned an error");
+                chunk.forEach(symbol -> results.put(symbol, failure.apply(symbol, error)));
+                return results;
+            }
+
+            // A single-symbol request returns the quote itself rather than a map keyed by symbol
+            if (chunk.size() == 1) {
+                String symbol = chunk.get(0);
+                results.put(symbol, parseOrFail(symbol, json, parser, failure));
+                return results;
+            }
+
+            for (String symbol : chunk) {
+                JSONObject quote = json.optJSONObject(symbol);
+                if (quote == null) {
+                    results.put(symbol, failure.apply(symbol, "No quote returned for symbol"));
+                } else {
+                    results.put(symbol, parseOrFail(symbol, quote, parser, failure));
+                }
+            }
+        } catch (RestClientException | JSONException e) {
+            log.error("Failed to fetch {} for symbols: {}", endpoint, chunk, e);
+            chunk.forEach(symbol -> results.put(symbol, failure.apply(symbol, e.getMessage())));
+        } finally {
+            upstreamMetrics.stop(sample, urlTemplate, endpoint, outcome);
+        }
+        return results;
+    }
+
+    private <T> T parseOrFail(String symbol, JSONObject quote, BiFunction<String, JSONObject, T> parser, BiFunction<String, String, T> failure) {
+        if (isError(quote)) {
+            return failure.apply(symbol, quote.optString("message", "Provider returned an error"));
+        }
+        try {
+            return parser.apply(symbol, quote);
+        } catch (JSONException | DateTimeParseException e) {
+            return failure.apply(symbol, "Invalid quote in provider response");
+        }
+    }
+
+    private QuoteResult parseQuote(String symbol, JSONObject quote) {
+        return QuoteResult.success(symbol, quote.getDouble("price"));
+    }
+
+    private DailyBar parseBar(String symbol, JSONObject quote) {
+        return new DailyBar(LocalDate.parse(quote.getString("datetime").substring(0, 10)),
+                quote.getDouble("open"), quote.getDouble("high"), quote.getDouble("low"), quote.getDouble("close"),
+                quote.optLong("volume", 0));
+    }
+
+    /**
+     * TwelveData reports failures such as rate limits and unknown symbols with HTTP 200 and a
+     * {@code {"status":"error","code":...}} body.
+     */
+    public static boolean isError(JSONObject json) {
+        return "error".equalsIgnoreCase(json.optString("status")) && json.has("code");
+    }
+
+    /**
+     * {@link #isError(JSONObject)} for a raw response body. Only bodies that mention an error are parsed.
+     */
+    public static boolean isErrorBody(String body) {
+        if (body == null || !body.contains("\"error\"")) {
+            return false;
+        }
+        try {
+            return isError(new JSONObject(body));
+        } catch (JSONException e) {
+            return false;
+        }
+    }
+}
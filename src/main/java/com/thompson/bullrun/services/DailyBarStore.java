@@ -0,0 +1,188 @@
+package com.thompson.bullrun.services;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.bulk.BulkWriteError;
+import com.thompson.bullrun.entities.BarSeries;
+import com.thompson.bullrun.entities.DailyBar;
+import com.thompson.bullrun.entities.DailyBarBucketEntity;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DailyBarStore keeps the daily OHLCV history of held symbols in monthly buckets (see {@link DailyBarBucketEntity}).
+ * Appending a refresh is one unordered bulk write for all symbols; a bar for a day that is already stored replaces it.
+ * Range reads fetch every bucket of all requested symbols with a single query and a large cursor batch, so a year of
+ * bars for hundreds of symbols arrives in a few round trips.
+ */
+@Slf4j
+@Service
+public class DailyBarStore {
+
+    private static final int CURSOR_BATCH_SIZE = 10_000;
+
+    private final MongoTemplate mongoTemplate;
+
+    public DailyBarStore(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Stores the bars, replacing any bar already stored for the same symbol and day.
+     *
+     * @param bars bars keyed by symbol
+     */
+    public void append(Map<String, DailyBar> bars) {
+        if (bars.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<String, DailyBar>> entries = new ArrayList<>(bars.entrySet());
+        List<Map.Entry<String, DailyBar>> alreadyStored = new ArrayList<>();
+
+        // Push the bar unless its day is already in the bucket. For an existing day the filter misses,
+        // the upsert collides with the bucket's _id, and the bar is replaced in place below instead.
+        BulkOperations push = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DailyBarBucketEntity.class);
+        for (Map.Entry<String, DailyBar> entry : entries) {
+            DailyBar bar = entry.getValue();
+            int day = (int) bar.getDate().toEpochDay();
+            Query query = new Query(Criteria.where("_id").is(bucketId(entry.getKey(), bar.getDate())).and("days").ne(day));
+            Update update = new Update()
+                    .setOnInsert("symbol", entry.getKey())
+                    .setOnInsert("month", YearMonth.from(bar.getDate()).toString())
+                    .push("days", day)
+                    .push("open", bar.getOpen())
+                    .push("high", bar.getHigh())
+                    .push("low", bar.getLow())
+                    .push("close", bar.getClose())
+                    .push("volume", bar.getVolume());
+            push.upsert(query, update);
+        }
+        try {
+            push.execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                if (ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY) {
+                    alreadyStored.add(entries.get(error.getIndex()));
+                } else {
+                    log.error("Failed to store daily bar for symbol: {} ({})", entries.get(error.getIndex()).getKey(), error.getMessage());
+                }
+            }
+        }
+
+        if (!alreadyStored.isEmpty()) {
+            BulkOperations replace = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DailyBarBucketEntity.class);
+            for (Map.Entry<String, DailyBar> entry : alreadyStored) {
+                DailyBar bar = entry.getValue();
+                // The positional operator points at the matched element of days, which is the same index in every column
+                Query query = new Query(Criteria.where("_id").is(bucketId(entry.getKey(), bar.getDate())).and("days").is((int) bar.getDate().toEpochDay()));
+                Update update = new Update()
+                        .set("open.$", bar.getOpen())
+                        .set("high.$", bar.getHigh())
+                        .set("low.$", bar.getLow())
+                        .set("close.$", bar.getClose())
+                        .set("volume.$", bar.getVolume());
+                replace.updateOne(query, update);
+            }
+            replace.execute();
+        }
+        log.info("Stored daily bars for {} symbols ({} replaced an existing bar)", entries.size(), alreadyStored.size());
+    }
+
+    /**
+     * Reads the bars of every given symbol between the two dates, inclusive.
+     *
+     * @return series keyed by symbol; symbols without bars in the range are left out
+     */
+    public Map<String, BarSeries> findBars(Collection<String> symbols, LocalDate from, LocalDate to) {
+        Query query = new Query(Criteria.where("symbol").in(symbols)
+                .and("month").gte(YearMonth.from(from).toString()).lte(YearMonth.from(to).toString()))
+                .with(Sort.by("symbol", "month"))
+                .cursorBatchSize(CURSOR_BATCH_SIZE);
+
+        Map<String, List<DailyBarBucketEntity>> bucketsBySymbol = new LinkedHashMap<>();
+        for (DailyBarBucketEntity bucket : mongoTemplate.find(query, DailyBarBucketEntity.class)) {
+            bucketsBySymbol.computeIfAbsent(bucket.getSymbol(), symbol -> new ArrayList<>()).add(bucket);
+        }
+
+        int fromDay = (int) from.toEpochDay();
+        int toDay = (int) to.toEpochDay();
+        Map<String, BarSeries> series = new LinkedHashMap<>();
+        bucketsBySymbol.forEach((symbol, buckets) -> {
+            BarSeries bars = toSeries(symbol, buckets, fromDay, toDay);
+            if (bars.size() > 0) {
+                series.put(symbol, bars);
+            }
+        });
+        return series;
+    }
+
+    public BarSeries findBars(String symbol, LocalDate from, LocalDate to) {
+        return findBars(List.of(symbol), from, to).getOrDefault(symbol,
+                new BarSeries(symbol, new int[0], new double[0], new double[0], new double[0], new double[0], new long[0]));
+    }
+
+    /**
+     * Flattens the buckets into one series, keeping bars in [fromDay, toDay] and ordering them by day.
+     * Sorting uses packed day/position keys, so no per-bar objects are created.
+     */
+    static BarSeries toSeries(String symbol, List<DailyBarBucketEntity> buckets, int fromDay, int toDay) {
+        int total = 0;
+        for (DailyBarBucketEntity bucket : buckets) {
+            total += bucket.getDays().length;
+        }
+        int[] bucketOf = new int[total];
+        int[] positionOf = new int[total];
+        long[] keys = new long[total];
+        int count = 0;
+        for (int b = 0; b < buckets.size(); b++) {
+            int[] days = buckets.get(b).getDays();
+            for (int i = 0; i < days.length; i++) {
+                if (days[i] >= fromDay && days[i] <= toDay) {
+                    bucketOf[count] = b;
+                    positionOf[count] = i;
+                    keys[count] = ((long) days[i] << 32) | count;
+                    count++;
+                }
+            }
+        }
+        Arrays.sort(keys, 0, count);
+
+        int[] days = new int[count];
+        double[] open = new double[count];
+        double[] high = new double[count];
+        double[] low = new double[count];
+        double[] close = new double[count];
+        long[] volume = new long[count];
+        for (int i = 0; i < count; i++) {
+            int source = (int) keys[i];
+            DailyBarBucketEntity bucket = buckets.get(bucketOf[source]);
+            int position = positionOf[source];
+            days[i] = bucket.getDays()[position];
+            open[i] = bucket.getOpen()[position];
+            high[i] = bucket.getHigh()[position];
+            low[i] = bucket.getLow()[position];
+            close[i] = bucket.getClose()[position];
+            volume[i] = bucket.getVolume()[position];
+        }
+        return new BarSeries(symbol, days, open, high, low, close, volume);
+    }
+
+    private static String bucketId(String symbol, LocalDate date) {
+        return symbol + ":" + YearMonth.from(date);
+    }
+}
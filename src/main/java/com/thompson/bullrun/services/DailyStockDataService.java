@@ -1,88 +1,254 @@
 package com.thompson.bullrun.services;
 
+import com.thompson.bullrun.common.UpstreamMetrics;
+import com.thompson.bullrun.common.ValuationKernel;
 import com.thompson.bullrun.config.ApiProperties;
+import com.thompson.bullrun.config.LogoProperties;
+import com.thompson.bullrun.entities.DailyBar;
+import com.thompson.bullrun.entities.PortfolioHistoryEntity;
+import com.thompson.bullrun.entities.QuoteResult;
 import com.thompson.bullrun.entities.StockEntity;
-import com.thompson.bullrun.entities.UserEntity;
 import com.thompson.bullrun.exceptions.StockDataException;
+import com.thompson.bullrun.repositories.PortfolioHistoryRepository;
 import com.thompson.bullrun.repositories.StockRepository;
-import com.thompson.bullrun.repositories.UserRepository;
-import jakarta.annotation.PostConstruct;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.json.JSONObject;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
-import java.io.InputStream;
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.net.URI;
-import java.net.URL;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Slf4j
 @Service
 public class DailyStockDataService {
 
+    public static final String DEFAULT_REFRESH_CRON = "0 0 0 * * 1-6";
+    public static final String REFRESH_ZONE = "America/New_York";
+
     private final RestTemplate restTemplate;
     private final ApiProperties apiProperties;
     private final StockRepository stockRepository;
-    private final UserRepository userRepository;
+    private final PortfolioHistoryRepository portfolioHistoryRepository;
+    private final PortfolioRollupService portfolioRollupService;
+    private final StockRefreshEngine stockRefreshEngine;
+    private final BatchQuoteClient batchQuoteClient;
+    private final StockBulkWriter stockBulkWriter;
+    private final DailyBarStore dailyBarStore;
+    private final LocalBarCache localBarCache;
+    private final PnlTracker pnlTracker;
+    private final LogoStoreService logoStoreService;
+    private final LogoProperties logoProperties;
+    private final MeterRegistry meterRegistry;
+    private final UpstreamMetrics upstreamMetrics;
+    private final AtomicBoolean refreshRunning = new AtomicBoolean();
 
-    public DailyStockDataService(RestTemplate restTemplate, ApiProperties apiProperties, StockRepository stockRepository, UserRepository userRepository) {
+    public DailyStockDataService(RestTemplate restTemplate, ApiProperties apiProperties, StockRepository stockRepository, PortfolioHistoryRepository portfolioHistoryRepository,
+                                 PortfolioRollupService portfolioRollupService,
+                                 StockRefreshEngine stockRefreshEngine, BatchQuoteClient batchQuoteClient, StockBulkWriter stockBulkWriter, DailyBarStore dailyBarStore,
+                                 LocalBarCache localBarCache, PnlTracker pnlTracker,
+                                 LogoStoreService logoStoreService, LogoProperties logoProperties, MeterRegistry meterRegistry, UpstreamMetrics upstreamMetrics) {
         this.restTemplate = restTemplate;
         this.apiProperties = apiProperties;
         this.stockRepository = stockRepository;
-        this.userRepository = userRepository;
+        this.portfolioHistoryRepository = portfolioHistoryRepository;
+        this.portfolioRollupService = portfolioRollupService;
+        this.stockRefreshEngine = stockRefreshEngine;
+        this.batchQuoteClient = batchQuoteClient;
+        this.stockBulkWriter = stockBulkWriter;
+        this.dailyBarStore = dailyBarStore;
+        this.localBarCache = localBarCache;
+        this.pnlTracker = pnlTracker;
+        this.logoStoreService = logoStoreService;
+        this.logoProperties = logoProperties;
+        this.meterRegistry = meterRegistry;
+        this.upstreamMetrics = upstreamMetrics;
     }
 
-    @PostConstruct
-    @Scheduled(cron = "0 0 0 * * 1-6", zone = "America/New_York")
+    /**
+     * Refreshes every stock and records the portfolio total. Runs on the refresh schedule and, when the persisted
+     * prices are stale, once after startup. Overlapping calls are skipped rather than queued.
+     */
+    @Scheduled(cron = "${refresh.cron:" + DEFAULT_REFRESH_CRON + "}", zone = REFRESH_ZONE)
     public void updateStockPrices() {
+        if (!refreshRunning.compareAndSet(false, true)) {
+            log.warn("Stock price update job is already running. Skipping this run.");
+            return;
+        }
+        try {
+            runMeteredStockPriceUpdate();
+        } finally {
+            refreshRunning.set(false);
+        }
+    }
+
+    private void runMeteredStockPriceUpdate() {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
+        try {
+            StockRefreshEngine.RefreshReport report = runStockPriceUpdate();
+            meterRegistry.counter("bullrun.refresh.stocks", "result", "updated").increment(report.getStockCount() - report.getFailureCount());
+            meterRegistry.counter("bullrun.refresh.stocks", "result", "failed").increment(report.getFailureCount());
+            report.getPhaseMillis().forEach((phase, millis) ->
+                    meterRegistry.timer("bullrun.refresh.phase", "phase", phase).record(millis, TimeUnit.MILLISECONDS));
+            outcome = "success";
+        } finally {
+            sample.stop(meterRegistry.timer("bullrun.refresh.duration", "outcome", outcome));
+        }
+    }
+
+    private StockRefreshEngine.RefreshReport runStockPriceUpdate() {
         LocalDateTime startTime = LocalDateTime.now();
         log.info("Starting stock price update job at {}", startTime);
 
         List<StockEntity> stocks = stockRepository.findAll();
-        double totalValue = 0.0;
-        for (StockEntity stock : stocks) {
-            try {
-                updateStockData(stock);
-                stock.setTimestamp(LocalDateTime.now());
-                totalValue += stock.getCurrentValue();
-                log.info("Updated price for stock: {} to {}. Current value: {}", stock.getSymbol(), stock.getClosePrice(), stock.getCurrentValue());
-            } catch (StockDataException e) {
-                log.error("Error updating price for stock: {}", stock.getSymbol(), e);
-            }
-        }
-        stockRepository.saveAll(stocks);
-        saveTotalStockValue(totalValue);
+
+        long quoteStart = System.nanoTime();
+        Map<String, QuoteResult> quotes = batchQuoteClient.fetchPrices(stocks.stream().map(StockEntity::getSymbol).toList());
+        long quoteMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - quoteStart);
+
+        Map<String, AggregationUpdate> updates = new ConcurrentHashMap<>();
+        StockRefreshEngine.RefreshReport report = stockRefreshEngine.refresh(stocks, (stock, timings) -> {
+            String logoHashBefore = stock.getLogoHash();
+            LocalDateTime logoCheckedBefore = stock.getLogoCheckedAt();
+            refreshStock(stock, quotes.get(stock.getSymbol()), timings);
+            boolean logoChanged = !Objects.equals(logoHashBefore, stock.getLogoHash()) || !Objects.equals(logoCheckedBefore, stock.getLogoCheckedAt());
+            updates.put(stock.getSymbol(), refreshedFields(stock, logoChanged));
+        });
+
+        long saveStart = System.nanoTime();
+        StockBulkWriter.BulkWriteReport writeReport = stockBulkWriter.write(updates);
+        saveTotalStockValue(report.getTotalValue());
+        long saveMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - saveStart);
+
+        storeDailyBars(updates.keySet());
+        // The closes just stored are the previous closes of the next session
+        pnlTracker.reload();
+
         LocalDateTime endTime = LocalDateTime.now();
-        log.info("Stock price update job completed successfully for {} stocks at {}. Duration: {} seconds", stocks.size(), endTime, java.time.Duration.between(startTime, endTime).getSeconds());
+        log.info("Stock price update job completed for {} stocks ({} failed to refresh, {} failed to save) at {}. Duration: {} ms (quotes: {} ms, refresh: {} ms, save: {} ms)",
+                stocks.size(), report.getFailureCount(), writeReport.getFailedSymbols().size(), endTime,
+                java.time.Duration.between(startTime, endTime).toMillis(), quoteMillis, report.getWallMillis(), saveMillis);
+        return report;
+    }
+
+    private void refreshStock(StockEntity stock, QuoteResult quote, StockRefreshEngine.PhaseTimings timings) {
+        timings.time("price", () -> applyQuote(stock, quote));
+        timings.time("logo", () -> updateStockLogo(stock));
+        stock.setTimestamp(LocalDateTime.now());
+        log.info("Updated price for stock: {} to {}. Current value: {}", stock.getSymbol(), stock.getClosePrice(), stock.getCurrentValue());
     }
 
+    /**
+     * Appends today's bar of every refreshed symbol to the bar history. A failure here is logged and does not fail the job,
+     * since prices and the portfolio total are already saved.
+     */
+    private void storeDailyBars(Collection<String> symbols) {
+        if (symbols.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            // The benchmark's bars are kept alongside the holdings for beta in the portfolio analytics
+            Set<String> barSymbols = new LinkedHashSet<>(symbols);
+            barSymbols.add(PortfolioAnalyticsService.BENCHMARK_SYMBOL);
+            Map<String, DailyBar> bars = batchQuoteClient.fetchDailyBars(barSymbols);
+            dailyBarStore.append(bars);
+            localBarCache.append(bars);
+            log.info("Stored daily bars in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (RuntimeException e) {
+            log.error("Failed to store daily bars for {} symbols", symbols.size(), e);
+        }
+    }
+
+    /**
+     * Only the fields a refresh changes: the price fields always, the logo fields only when the logo was revalidated.
+     * The current value is computed on the server from the stored shares owned, so a concurrent updateSharesOwned can
+     * never leave it out of step with the share count. Prices have two decimals, so the price in cents times the shares
+     * is exact and equals the HALF_UP value {@link ValuationKernel} computes.
+     */
+    private AggregationUpdate refreshedFields(StockEntity stock, boolean logoChanged) {
+        long priceCents = ValuationKernel.toMicros(stock.getClosePrice(), 2) / (ValuationKernel.MICROS_PER_UNIT / 100);
+        AggregationUpdate update = AggregationUpdate.update()
+                .set("closePrice").toValue(stock.getClosePrice())
+                .set("currentValue").toValueOf(ArithmeticOperators.valueOf(
+                        ArithmeticOperators.valueOf("sharesOwned").multiplyBy(priceCents)).divideBy(100))
+                .set("timestamp").toValue(stock.getTimestamp())
+                .set("version").toValueOf(ArithmeticOperators.valueOf(ConditionalOperators.ifNull("version").then(0)).add(1));
+        if (logoChanged) {
+            update.set("logoHash").toValue(stock.getLogoHash())
+                    .set("logoUrl").toValue(stock.getLogoUrl())
+                    .set("logoETag").toValue(stock.getLogoETag())
+                    .set("logoLastModified").toValue(stock.getLogoLastModified())
+                    .set("logoCheckedAt").toValue(stock.getLogoCheckedAt());
+        }
+        return update;
+    }
+
+    /**
+     * Prices a new stock and inserts it. The insert never overwrites an existing stock, and its version is set by the
+     * server rather than taken from the request.
+     *
+     * @throws org.springframework.dao.DuplicateKeyException if a stock with the symbol already exists
+     */
     public void updateOneStockPrice(StockEntity stock) {
         log.info("Starting stock price update for stock: {}", stock.getSymbol());
         try {
             updateStockData(stock);
             stock.setTimestamp(LocalDateTime.now());
-            stockRepository.save(stock);
+            stockRepository.insertStock(stock);
+            pnlTracker.refreshHolding(stock.getSymbol());
             log.info("Updated price for stock: {} to {}. Current value: {}", stock.getSymbol(), stock.getClosePrice(), stock.getCurrentValue());
         } catch (StockDataException e) {
             log.error("Error updating price for stock: {}", stock.getSymbol(), e);
         }
     }
 
+    /**
+     * Sets the shares owned for a stock without rewriting the rest of its document. The current value is recomputed
+     * from a fresh quote when one is available, otherwise from the stored close price.
+     */
     public void updateSharesOwned(String symbol, int sharesOwned) {
-        Optional<StockEntity> stock = stockRepository.findBySymbol(symbol);
-        if (stock.isPresent()) {
-            log.info("Updating shares owned for stock with symbol: {} to {}", stock.get().getSymbol(), sharesOwned);
-            stock.get().setSharesOwned(sharesOwned);
-            updateStockData(stock.get());
-            stockRepository.save(stock.get());
-            log.info("Shares owned for stock with symbol: {} updated successfully", stock.get().getSymbol());
+        log.info("Updating shares owned for stock with symbol: {} to {}", symbol, sharesOwned);
+        QuoteResult quote = batchQuoteClient.fetchPrice(symbol);
+        boolean found;
+        if (quote != null && quote.isSuccess()) {
+            long closePrice = ValuationKernel.toMicros(quote.getPrice(), 2);
+            long currentValue = ValuationKernel.value(closePrice, sharesOwned, 2);
+            found = stockRepository.updatePriceAndShares(symbol, ValuationKernel.toDouble(closePrice), sharesOwned,
+                    ValuationKernel.toDouble(currentValue), LocalDateTime.now());
+        } else {
+            log.warn("No fresh quote for symbol: {} ({}). Using the stored close price.", symbol, quote == null ? "no quote returned" : quote.getError());
+            found = stockRepository.updateSharesOwned(symbol, sharesOwned).isPresent();
+        }
+
+        if (found) {
+            pnlTracker.refreshHolding(symbol);
+            if (quote != null && quote.isSuccess()) {
+                // refreshHolding keeps the tracked price, which may predate the quote just stored
+                pnlTracker.onPrice(symbol, quote.getPrice());
+            }
+            log.info("Shares owned for stock with symbol: {} updated successfully", symbol);
         } else {
             log.warn("Stock with symbol: {} not found", symbol);
         }
@@ -95,33 +261,36 @@ public class DailyStockDataService {
 
     private void updateStockPrice(StockEntity stock) throws StockDataException {
         log.debug("Updating stock price for symbol: {}", stock.getSymbol());
-        try {
-            String apiUrl = apiProperties.getStockPriceURL().replace("{symbol}", stock.getSymbol()).replace("{apiKey}", apiProperties.getTwelveDataAPIKey());
-            String response = restTemplate.getForObject(apiUrl, String.class);
-            JSONObject jsonResponse = new JSONObject(response);
-            double price = jsonResponse.getDouble("price");
+        applyQuote(stock, batchQuoteClient.fetchPrice(stock.getSymbol()));
+    }
 
-            BigDecimal formattedPrice = BigDecimal.valueOf(price).setScale(2, RoundingMode.HALF_UP);
-            stock.setClosePrice(formattedPrice.doubleValue());
+    private void applyQuote(StockEntity stock, QuoteResult quote) throws StockDataException {
+        if (quote == null || !quote.isSuccess()) {
+            String reason = quote == null ? "no quote returned" : quote.getError();
+            throw new StockDataException("Failed to update stock price for symbol: " + stock.getSymbol() + " (" + reason + ")");
+        }
 
-            BigDecimal currentValue = formattedPrice.multiply(BigDecimal.valueOf(stock.getSharesOwned())).setScale(2, RoundingMode.HALF_UP);
-            stock.setCurrentValue(currentValue.doubleValue());
+        long closePrice = ValuationKernel.toMicros(quote.getPrice(), 2);
+        stock.setClosePrice(ValuationKernel.toDouble(closePrice));
+        stock.setCurrentValue(ValuationKernel.toDouble(ValuationKernel.value(closePrice, stock.getSharesOwned(), 2)));
 
-            log.debug("Updated stock price for symbol: {} to {}", stock.getSymbol(), formattedPrice);
-        } catch (RestClientException e) {
-            throw new StockDataException("Failed to update stock price for symbol: " + stock.getSymbol(), e);
-        }
+        log.debug("Updated stock price for symbol: {} to {}", stock.getSymbol(), stock.getClosePrice());
     }
 
     private void updateStockLogo(StockEntity stock) throws StockDataException {
+        if (isLogoFresh(stock)) {
+            log.debug("Logo for symbol: {} checked at {} is still fresh. Skipping revalidation.", stock.getSymbol(), stock.getLogoCheckedAt());
+            return;
+        }
         log.debug("Updating stock logo for symbol: {}", stock.getSymbol());
         try {
             String getLogo = apiProperties.getCompanyLogoURL().replace("{symbol}", stock.getSymbol()).replace("{apiKey}", apiProperties.getTwelveDataAPIKey());
-            String logoResponse = restTemplate.getForObject(getLogo, String.class);
+            String logoResponse = fetchLogoMetadata(getLogo);
 
             if (logoResponse == null || logoResponse.trim().isEmpty()) {
                 log.warn("API returned empty response for symbol: {}. Using default image.", stock.getSymbol());
                 setDefaultLogo(stock);
+                markLogoChecked(stock, null, null, null);
                 return;
             }
 
@@ -131,54 +300,111 @@ public class DailyStockDataService {
             if (logoUrl.trim().isEmpty()) {
                 log.warn("API returned empty URL for symbol: {}. Using default image.", stock.getSymbol());
                 setDefaultLogo(stock);
+                markLogoChecked(stock, null, null, null);
                 return;
             }
 
-            byte[] logoImage = downloadImage(logoUrl);
-            stock.setLogoImage(logoImage);
+            revalidateLogo(stock, logoUrl);
+        } catch (RestClientException | StockDataException e) {
+            if (stock.getLogoHash() == null) {
+                log.error("Failed to update stock logo for symbol: {}. Using default image.", stock.getSymbol(), e);
+                setDefaultLogo(stock);
+            } else {
+                log.error("Failed to revalidate stock logo for symbol: {}. Keeping current logo.", stock.getSymbol(), e);
+            }
+        }
+    }
+
+    private String fetchLogoMetadata(String logoApiUrl) {
+        Timer.Sample sample = upstreamMetrics.start();
+        String outcome = UpstreamMetrics.IO_ERROR;
+        try {
+            String response = restTemplate.getForObject(logoApiUrl, String.class);
+            outcome = UpstreamMetrics.SUCCESS;
+            return response;
+        } finally {
+            upstreamMetrics.stop(sample, logoApiUrl, "companyLogo", outcome);
+        }
+    }
+
+    private boolean isLogoFresh(StockEntity stock) {
+        return stock.getLogoHash() != null && stock.getLogoCheckedAt() != null
+                && stock.getLogoCheckedAt().plus(logoProperties.ttlFor(stock.getSymbol())).isAfter(LocalDateTime.now());
+    }
+
+    /**
+     * Downloads the logo, sending the stored validators when the URL is unchanged so the provider can answer 304.
+     * The logo store is only written when the downloaded bytes differ from the current logo.
+     */
+    private void revalidateLogo(StockEntity stock, String logoUrl) throws StockDataException {
+        HttpHeaders headers = new HttpHeaders();
+        if (logoUrl.equals(stock.getLogoUrl()) && stock.getLogoHash() != null) {
+            if (stock.getLogoETag() != null) {
+                headers.setIfNoneMatch(stock.getLogoETag());
+            }
+            if (stock.getLogoLastModified() != null) {
+                headers.set(HttpHeaders.IF_MODIFIED_SINCE, stock.getLogoLastModified());
+            }
+        }
+
+        ResponseEntity<byte[]> response = downloadImage(logoUrl, headers);
+        if (response.getStatusCode().value() == HttpStatus.NOT_MODIFIED.value()) {
+            log.debug("Logo for symbol: {} not modified", stock.getSymbol());
+            markLogoChecked(stock, logoUrl, stock.getLogoETag(), stock.getLogoLastModified());
+            return;
+        }
 
+        byte[] logoImage = response.getBody();
+        if (logoImage == null || logoImage.length == 0) {
+            throw new StockDataException("Empty image downloaded from URL: " + logoUrl);
+        }
+        String hash = LogoStoreService.hash(logoImage);
+        if (hash.equals(stock.getLogoHash())) {
+            log.debug("Logo for symbol: {} unchanged", stock.getSymbol());
+        } else {
+            stock.setLogoHash(logoStoreService.store(logoImage));
             log.debug("Updated stock logo for symbol: {}", stock.getSymbol());
-        } catch (RestClientException e) {
-            log.error("Failed to update stock logo for symbol: {}. Using default image.", stock.getSymbol(), e);
-            setDefaultLogo(stock);
         }
+        markLogoChecked(stock, logoUrl, response.getHeaders().getETag(), response.getHeaders().getFirst(HttpHeaders.LAST_MODIFIED));
+    }
+
+    private void markLogoChecked(StockEntity stock, String logoUrl, String eTag, String lastModified) {
+        stock.setLogoUrl(logoUrl);
+        stock.setLogoETag(eTag);
+        stock.setLogoLastModified(lastModified);
+        stock.setLogoCheckedAt(LocalDateTime.now());
     }
 
     private void setDefaultLogo(StockEntity stock) throws StockDataException {
         try {
-            InputStream defaultImageStream = getClass().getResourceAsStream("/static/images/BullRunLogo.png");
-            if (defaultImageStream != null) {
-                byte[] defaultImage = defaultImageStream.readAllBytes();
-                stock.setLogoImage(defaultImage);
-                log.debug("Set default logo for symbol: {}", stock.getSymbol());
-            } else {
-                throw new StockDataException("Default logo image not found in resources.");
-            }
-        } catch (Exception ex) {
-            throw new StockDataException("Failed to set default logo for symbol: " + stock.getSymbol(), ex);
+            stock.setLogoHash(logoStoreService.defaultLogoHash());
+            log.debug("Set default logo for symbol: {}", stock.getSymbol());
+        } catch (RuntimeException e) {
+            throw new StockDataException("Failed to set default logo for symbol: " + stock.getSymbol(), e);
         }
     }
 
-    private byte[] downloadImage(String imageUrl) throws StockDataException {
+    private ResponseEntity<byte[]> downloadImage(String imageUrl, HttpHeaders headers) throws StockDataException {
         log.debug("Downloading image from URL: {}", imageUrl);
+        Timer.Sample sample = upstreamMetrics.start();
+        String outcome = UpstreamMetrics.IO_ERROR;
         try {
-            URI uri = new URI(imageUrl);
-            URL url = uri.toURL();
-            try (InputStream in = url.openStream()) {
-                byte[] imageBytes = in.readAllBytes();
-                log.debug("Downloaded image from URL: {}", imageUrl);
-                return imageBytes;
-            }
-        } catch (Exception e) {
+            RequestEntity<Void> request = RequestEntity.get(URI.create(imageUrl)).headers(headers).build();
+            ResponseEntity<byte[]> response = restTemplate.exchange(request, byte[].class);
+            outcome = UpstreamMetrics.outcomeOf(response.getStatusCode());
+            log.debug("Downloaded image from URL: {}. Status: {}", imageUrl, response.getStatusCode());
+            return response;
+        } catch (RestClientException | IllegalArgumentException e) {
             throw new StockDataException("Failed to download image from URL: " + imageUrl, e);
+        } finally {
+            upstreamMetrics.stop(sample, imageUrl, "logoImage", outcome);
         }
     }
 
     private void saveTotalStockValue(double totalValue) {
-        UserEntity totalStockValue = new UserEntity();
-        totalStockValue.setDate(LocalDateTime.now());
-        totalStockValue.setTotalValue(totalValue);
-        userRepository.save(totalStockValue);
+        PortfolioHistoryEntity totalStockValue = new PortfolioHistoryEntity(null, LocalDateTime.now(), totalValue);
+        portfolioHistoryRepository.insert(totalStockValue);
+        portfolioRollupService.record(totalStockValue.getDate(), totalValue);
         log.info("Saved total stock value: {} at {}", totalValue, totalStockValue.getDate());
     }
 }
\ No newline at end of file
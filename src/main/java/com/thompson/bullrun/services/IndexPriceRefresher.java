@@ -0,0 +1,115 @@
+package com.thompson.bullrun.services;
+
+import com.thompson.bullrun.common.PriceFormatter;
+import com.thompson.bullrun.entities.IndexPriceSnapshot;
+import com.thompson.bullrun.entities.QuoteResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * IndexPriceRefresher polls the major index prices in the background and publishes them as an immutable snapshot.
+ * It polls often while the US market is open and rarely otherwise, so requests for index prices never wait on I/O.
+ */
+@Slf4j
+@Service
+public class IndexPriceRefresher {
+
+    public static final List<String> INDEX_SYMBOLS = List.of("DJI", "SPX", "IXIC");
+
+    private static final ZoneId MARKET_ZONE = ZoneId.of("America/New_York");
+    private static final LocalTime MARKET_OPEN = LocalTime.of(9, 30);
+    private static final LocalTime MARKET_CLOSE = LocalTime.of(16, 0);
+
+    private final BatchQuoteClient batchQuoteClient;
+    private final Duration marketHoursInterval;
+    private final Duration offHoursInterval;
+    private final AtomicReference<IndexPriceSnapshot> snapshot;
+    private volatile Instant nextRefreshAt = Instant.EPOCH;
+
+    public IndexPriceRefresher(BatchQuoteClient batchQuoteClient,
+                               @Value("${indexPrices.marketHoursInterval:PT1M}") Duration marketHoursInterval,
+                               @Value("${indexPrices.offHoursInterval:PT30M}") Duration offHoursInterval) {
+        this.batchQuoteClient = batchQuoteClient;
+        this.marketHoursInterval = marketHoursInterval;
+        this.offHoursInterval = offHoursInterval;
+        Map<String, String> unavailable = new LinkedHashMap<>();
+        INDEX_SYMBOLS.forEach(symbol -> unavailable.put(symbol, "N/A"));
+        this.snapshot = new AtomicReference<>(new IndexPriceSnapshot(unavailable, Map.of()));
+    }
+
+    /**
+     * Returns the latest published snapshot. Never performs I/O.
+     *
+     * @return the current index price snapshot
+     */
+    public IndexPriceSnapshot getSnapshot() {
+        return snapshot.get();
+    }
+
+    @Scheduled(fixedDelayString = "${indexPrices.tickMillis:5000}")
+    public void refreshIfDue() {
+        Instant now = Instant.now();
+        if (now.isBefore(nextRefreshAt)) {
+            return;
+        }
+        try {
+            refresh();
+        } finally {
+            nextRefreshAt = now.plus(isMarketOpen(now.atZone(MARKET_ZONE)) ? marketHoursInterval : offHoursInterval);
+        }
+    }
+
+    void refresh() {
+        log.debug("Refreshing index prices for: {}", INDEX_SYMBOLS);
+        Map<String, QuoteResult> quotes = batchQuoteClient.fetchPrices(INDEX_SYMBOLS);
+        IndexPriceSnapshot previous = snapshot.get();
+
+        Map<String, String> prices = new LinkedHashMap<>();
+        Map<String, Instant> refreshedAt = new LinkedHashMap<>();
+        Instant now = Instant.now();
+        int failures = 0;
+        for (String symbol : INDEX_SYMBOLS) {
+            QuoteResult quote = quotes.get(symbol);
+            if (quote != null && quote.isSuccess()) {
+                prices.put(symbol, PriceFormatter.format(quote.getPrice()));
+                refreshedAt.put(symbol, now);
+            } else {
+                // Keep serving the last known price, and its fetch time, rather than regressing to N/A on a transient failure
+                prices.put(symbol, previous.getPrices().getOrDefault(symbol, "N/A"));
+                Instant lastRefreshed = previous.getRefreshedAtBySymbol().get(symbol);
+                if (lastRefreshed != null) {
+                    refreshedAt.put(symbol, lastRefreshed);
+                }
+                failures++;
+                log.warn("Failed to fetch price for symbol {}. Error: {}", symbol, quote == null ? "no quote returned" : quote.getError());
+            }
+        }
+
+        if (failures < INDEX_SYMBOLS.size()) {
+            snapshot.set(new IndexPriceSnapshot(prices, refreshedAt));
+            log.info("Published index price snapshot: {}", prices);
+        }
+    }
+
+    static boolean isMarketOpen(ZonedDateTime marketTime) {
+        DayOfWeek day = marketTime.getDayOfWeek();
+        if (day == DayOfWeek.SATURDAY || day == DayOfWeek.SUNDAY) {
+            return false;
+        }
+        LocalTime time = marketTime.toLocalTime();
+        return !time.isBefore(MARKET_OPEN) && time.isBefore(MARKET_CLOSE);
+    }
+}
@@ -0,0 +1,267 @@
+package com.thompson.bullrun.services;
+
+import com.thompson.bullrun.entities.BarSeries;
+import com.thompson.bullrun.entities.DailyBar;
+import com.thompson.bullrun.entities.DailyBarBucketEntity;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LocalBarCache is an optional read-through cache of the daily bar history in {@link DailyBarStore}.
+ * Each symbol's bars live in a memory-mapped fixed-width file (see {@link BarFile}), so range scans read doubles in
+ * place instead of transferring and decoding BSON buckets.
+ * <p>
+ * When enabled, the cache is rebuilt from Mongo on a virtual thread after every start, and the nightly refresh appends
+ * to it after writing to Mongo. Until the rebuild has finished, and whenever the cache is disabled or failed, reads go
+ * to Mongo. Symbols missing from the cache are loaded from Mongo on first read.
+ */
+@Slf4j
+@Service
+public class LocalBarCache {
+
+    public enum State { DISABLED, REBUILDING, READY, FAILED }
+
+    /**
+     * Receives one bar per call, without allocating a bar object.
+     */
+    @FunctionalInterface
+    public interface BarVisitor {
+        void visit(int day, double open, double high, double low, double close, long volume);
+    }
+
+    private static final String FILE_SUFFIX = ".bars";
+    private static final int REBUILD_BATCH_SIZE = 50;
+    private static final LocalDate EARLIEST = LocalDate.of(1970, 1, 1);
+    private static final LocalDate LATEST = LocalDate.of(9999, 12, 31);
+
+    private final DailyBarStore dailyBarStore;
+    private final MongoTemplate mongoTemplate;
+    private final Path directory;
+    private final boolean enabled;
+    private final Map<String, BarFile> files = new ConcurrentHashMap<>();
+    // Appends that arrive while rebuilding, replayed once the rebuild has written every file; guarded by this
+    private final List<Map<String, DailyBar>> pendingAppends = new ArrayList<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    private volatile State state = State.DISABLED;
+
+    public LocalBarCache(DailyBarStore dailyBarStore, MongoTemplate mongoTemplate,
+                         @Value("${bars.localCache.dir:${java.io.tmpdir}/bullrun-bars}") String directory,
+                         @Value("${bars.localCache.enabled:false}") boolean enabled) {
+        this.dailyBarStore = dailyBarStore;
+        this.mongoTemplate = mongoTemplate;
+        this.directory = Paths.get(directory);
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            log.info("Local bar cache disabled. Bars are read from Mongo.");
+            return;
+        }
+        state = State.REBUILDING;
+        Thread.ofVirtual().name("bar-cache-rebuild").start(this::rebuild);
+    }
+
+    void rebuild() {
+        long start = System.nanoTime();
+        try {
+            Files.createDirectories(directory);
+            deleteBarFiles();
+            List<String> symbols = mongoTemplate.findDistinct(new Query(), "symbol", DailyBarBucketEntity.class, String.class);
+            long bars = 0;
+            for (int from = 0; from < symbols.size(); from += REBUILD_BATCH_SIZE) {
+                List<String> batch = symbols.subList(from, Math.min(from + REBUILD_BATCH_SIZE, symbols.size()));
+                for (BarSeries series : dailyBarStore.findBars(batch, EARLIEST, LATEST).values()) {
+                    files.put(series.getSymbol(), BarFile.write(path(series.getSymbol()), series));
+                    bars += series.size();
+                }
+            }
+            synchronized (this) {
+                pendingAppends.forEach(this::write);
+                pendingAppends.clear();
+                state = State.READY;
+            }
+            log.info("Rebuilt local bar cache in {} with {} symbols and {} bars in {} ms", directory, files.size(), bars,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (IOException | RuntimeException e) {
+            synchronized (this) {
+                pendingAppends.clear();
+                files.clear();
+                state = State.FAILED;
+            }
+            log.error("Failed to rebuild local bar cache in {}. Bars are read from Mongo.", directory, e);
+        }
+    }
+
+    /**
+     * Adds the bars of a refresh to the cache. Call after the bars are stored in Mongo, also when the cache is disabled,
+     * so the {@link #getGeneration() generation} moves on.
+     */
+    public synchronized void append(Map<String, DailyBar> bars) {
+        if (state == State.REBUILDING) {
+            pendingAppends.add(Map.copyOf(bars));
+        } else if (state == State.READY) {
+            write(bars);
+        }
+        generation.incrementAndGet();
+    }
+
+    /**
+     * Appends to the cached files. A symbol without a file is left alone: the bars are already in Mongo, and its first
+     * read loads the full history from there instead of starting a file from whatever is on disk.
+     */
+    private void write(Map<String, DailyBar> bars) {
+        bars.forEach((symbol, bar) -> {
+            BarFile file = files.get(symbol);
+            if (file == null) {
+                return;
+            }
+            try {
+                file.put((int) bar.getDate().toEpochDay(), bar.getOpen(), bar.getHigh(), bar.getLow(), bar.getClose(), bar.getVolume());
+            } catch (IOException e) {
+                // Dropping the symbol and its file makes the next read reload it from Mongo
+                files.remove(symbol);
+                deleteBarFile(symbol);
+                log.error("Failed to append daily bar for symbol: {} to the local bar cache", symbol, e);
+            }
+        });
+    }
+
+    private void deleteBarFile(String symbol) {
+        try {
+            Files.deleteIfExists(path(symbol));
+        } catch (IOException e) {
+            log.warn("Failed to delete the local bar file of symbol: {}", symbol, e);
+        }
+    }
+
+    /**
+     * Reads the bars of every given symbol between the two dates, inclusive. Same contract as
+     * {@link DailyBarStore#findBars(Collection, LocalDate, LocalDate)}.
+     */
+    public Map<String, BarSeries> findBars(Collection<String> symbols, LocalDate from, LocalDate to) {
+        if (state != State.READY) {
+            return dailyBarStore.findBars(symbols, from, to);
+        }
+        int fromDay = (int) from.toEpochDay();
+        int toDay = (int) to.toEpochDay();
+        Map<String, BarSeries> series = new LinkedHashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String symbol : symbols) {
+            BarFile file = files.get(symbol);
+            if (file == null) {
+                missing.add(symbol);
+                continue;
+            }
+            BarSeries bars = file.read(symbol, fromDay, toDay);
+            if (bars.size() > 0) {
+                series.put(symbol, bars);
+            }
+        }
+        if (!missing.isEmpty()) {
+            load(missing).forEach((symbol, file) -> {
+                BarSeries bars = file.read(symbol, fromDay, toDay);
+                if (bars.size() > 0) {
+                    series.put(symbol, bars);
+                }
+            });
+        }
+        return series;
+    }
+
+    /**
+     * Visits the bars of one symbol between the two dates, inclusive, in ascending day order. From the cache the bars
+     * are read straight from the mapped file.
+     */
+    public void scan(String symbol, LocalDate from, LocalDate to, BarVisitor visitor) {
+        BarFile file = state == State.READY ? files.get(symbol) : null;
+        if (file != null) {
+            file.scan((int) from.toEpochDay(), (int) to.toEpochDay(), visitor);
+            return;
+        }
+        BarSeries bars = findBars(List.of(symbol), from, to).get(symbol);
+        if (bars == null) {
+            return;
+        }
+        for (int i = 0; i < bars.size(); i++) {
+            visitor.visit(bars.getDays()[i], bars.getOpen()[i], bars.getHigh()[i], bars.getLow()[i], bars.getClose()[i], bars.getVolume()[i]);
+        }
+    }
+
+    /**
+     * Loads the full history of symbols that are not cached yet. Symbols without bars in Mongo are left out.
+     */
+    private synchronized Map<String, BarFile> load(List<String> symbols) {
+        Map<String, BarFile> loaded = new LinkedHashMap<>();
+        List<String> toFetch = new ArrayList<>();
+        for (String symbol : symbols) {
+            BarFile file = files.get(symbol);
+            if (file != null) {
+                loaded.put(symbol, file);
+            } else {
+                toFetch.add(symbol);
+            }
+        }
+        if (toFetch.isEmpty()) {
+            return loaded;
+        }
+        for (BarSeries series : dailyBarStore.findBars(toFetch, EARLIEST, LATEST).values()) {
+            try {
+                BarFile file = BarFile.write(path(series.getSymbol()), series);
+                files.put(series.getSymbol(), file);
+                loaded.put(series.getSymbol(), file);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to cache daily bars for symbol: " + series.getSymbol(), e);
+            }
+        }
+        log.info("Loaded daily bars for {} symbols into the local bar cache", toFetch.size());
+        return loaded;
+    }
+
+    private void deleteBarFiles() throws IOException {
+        try (DirectoryStream<Path> stale = Files.newDirectoryStream(directory, "*" + FILE_SUFFIX)) {
+            for (Path path : stale) {
+                Files.delete(path);
+            }
+        }
+        files.clear();
+    }
+
+    private Path path(String symbol) {
+        return directory.resolve(symbol + FILE_SUFFIX);
+    }
+
+    /**
+     * Changes every time a refresh has appended bars, so results derived from bars can be cached per generation.
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    public State getState() {
+        return state;
+    }
+}
@@ -0,0 +1,62 @@
+package com.thompson.bullrun.services;
+
+import com.thompson.bullrun.entities.StockEntity;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+/**
+ * One-time migration that moves logo bytes embedded in legacy Stock documents into the logo store.
+ * It only touches documents that still carry a logoImage field, so it is a no-op once done.
+ * Stored logos without thumbnails get them generated in the same pass. It runs ahead of the startup warm-up refresh,
+ * which would otherwise give a stock still carrying embedded bytes the default logo.
+ */
+@Slf4j
+@Service
+public class LogoMigrationService {
+
+    private static final String LEGACY_LOGO_FIELD = "logoImage";
+
+    private final MongoTemplate mongoTemplate;
+    private final LogoStoreService logoStoreService;
+
+    public LogoMigrationService(MongoTemplate mongoTemplate, LogoStoreService logoStoreService) {
+        this.mongoTemplate = mongoTemplate;
+        this.logoStoreService = logoStoreService;
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateEmbeddedLogos() {
+        Query legacyStocks = new Query(Criteria.where(LEGACY_LOGO_FIELD).exists(true));
+        legacyStocks.fields().include("_id", "symbol", LEGACY_LOGO_FIELD);
+
+        int migrated = 0;
+        for (Document stock : mongoTemplate.find(legacyStocks, Document.class, mongoTemplate.getCollectionName(StockEntity.class))) {
+            Object logo = stock.get(LEGACY_LOGO_FIELD);
+            Update update = new Update().unset(LEGACY_LOGO_FIELD);
+            if (logo instanceof Binary binary && binary.getData().length > 0) {
+                update.set("logoHash", logoStoreService.store(binary.getData()));
+            }
+            mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(stock.get("_id"))), update, StockEntity.class);
+            migrated++;
+        }
+        if (migrated > 0) {
+            log.info("Moved embedded logos of {} stocks into the logo store", migrated);
+        }
+
+        int backfilled = logoStoreService.backfillThumbnails();
+        if (backfilled > 0) {
+            log.info("Generated thumbnails for {} stored logos", backfilled);
+        }
+    }
+}
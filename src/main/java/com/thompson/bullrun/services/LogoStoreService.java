@@ -0,0 +1,249 @@
+package com.thompson.bullrun.services;
+
+import com.thompson.bullrun.config.LogoProperties;
+import com.thompson.bullrun.entities.LogoEntity;
+import com.thompson.bullrun.exceptions.StockDataException;
+import com.thompson.bullrun.repositories.LogoRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * LogoStoreService keeps logo images in their own collection, deduplicated by content hash.
+ * Stocks only hold the hash, so price reads and writes never carry image bytes.
+ */
+@Slf4j
+@Service
+public class LogoStoreService {
+
+    private static final String DEFAULT_LOGO_PATH = "/static/images/BullRunLogo.png";
+
+    private static final String THUMBNAIL_CONTENT_TYPE = "image/png";
+
+    private final LogoRepository logoRepository;
+    private final MongoTemplate mongoTemplate;
+    private final LogoProperties logoProperties;
+    private volatile String defaultLogoHash;
+
+    public LogoStoreService(LogoRepository logoRepository, MongoTemplate mongoTemplate, LogoProperties logoProperties) {
+        this.logoRepository = logoRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.logoProperties = logoProperties;
+    }
+
+    /**
+     * Stores the image if no identical image is stored yet.
+     *
+     * @param image image bytes
+     * @return the content hash referencing the stored image
+     */
+    public String store(byte[] image) {
+        String hash = hash(image);
+        if (!logoRepository.existsById(hash)) {
+            try {
+                logoRepository.insert(new LogoEntity(hash, image, detectContentType(image), image.length, LocalDateTime.now(), createThumbnails(image)));
+                log.debug("Stored new logo with hash: {} ({} bytes)", hash, image.length);
+            } catch (DuplicateKeyException e) {
+                log.debug("Logo with hash: {} was stored concurrently", hash);
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Returns the hash of the shared fallback logo, storing it on first use.
+     *
+     * @return the content hash of the default logo
+     */
+    public String defaultLogoHash() {
+        String hash = defaultLogoHash;
+        if (hash == null) {
+            synchronized (this) {
+                hash = defaultLogoHash;
+                if (hash == null) {
+                    hash = store(loadDefaultLogo());
+                    defaultLogoHash = hash;
+                }
+            }
+        }
+        return hash;
+    }
+
+    public Optional<LogoEntity> find(String hash) {
+        return logoRepository.findById(hash);
+    }
+
+    /**
+     * Picks the smallest configured thumbnail size that is at least the requested size.
+     *
+     * @param requestedSize requested edge length in pixels, or null for the original image
+     * @return the thumbnail size to serve, or null when the original image should be served
+     */
+    public Integer resolveThumbnailSize(Integer requestedSize) {
+        if (requestedSize == null) {
+            return null;
+        }
+        return logoProperties.getThumbnailSizes().stream()
+                .filter(size -> size >= requestedSize)
+                .min(Integer::compare)
+                .orElse(null);
+    }
+
+    /**
+     * Loads only the requested variant of a logo, so serving a thumbnail never transfers the original image.
+     * Falls back to the original image when the thumbnail does not exist, e.g. for formats that cannot be decoded.
+     *
+     * @param hash          content hash of the logo
+     * @param thumbnailSize thumbnail size from {@link #resolveThumbnailSize(Integer)}, or null for the original
+     * @return the image bytes and content type, if the logo exists
+     */
+    public Optional<LogoVariant> findVariant(String hash, Integer thumbnailSize) {
+        Query query = new Query(Criteria.where("_id").is(hash));
+        if (thumbnailSize != null) {
+            String thumbnailField = "thumbnails." + thumbnailSize;
+            query.fields().include(thumbnailField);
+            Document thumbnail = mongoTemplate.findOne(query, Document.class, mongoTemplate.getCollectionName(LogoEntity.class));
+            if (thumbnail == null) {
+                return Optional.empty();
+            }
+            Document thumbnails = thumbnail.get("thumbnails", Document.class);
+            if (thumbnails != null && thumbnails.get(String.valueOf(thumbnailSize)) instanceof Binary binary) {
+                return Optional.of(new LogoVariant(binary.getData(), THUMBNAIL_CONTENT_TYPE));
+            }
+            query = new Query(Criteria.where("_id").is(hash));
+        }
+        query.fields().include("image", "contentType");
+        return Optional.ofNullable(mongoTemplate.findOne(query, LogoEntity.class))
+                .map(logo -> new LogoVariant(logo.getImage(), logo.getContentType()));
+    }
+
+    /**
+     * Generates thumbnails for stored logos that predate ingest-time thumbnail generation.
+     *
+     * @return the number of logos updated
+     */
+    public int backfillThumbnails() {
+        Query missingThumbnails = new Query(Criteria.where("thumbnails").exists(false));
+        int updated = 0;
+        for (LogoEntity logo : mongoTemplate.find(missingThumbnails, LogoEntity.class)) {
+            mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(logo.getId())),
+                    new Update().set("thumbnails", createThumbnails(logo.getImage())), LogoEntity.class);
+            updated++;
+        }
+        return updated;
+    }
+
+    private Map<String, byte[]> createThumbnails(byte[] image) {
+        Map<String, byte[]> thumbnails = new HashMap<>();
+        try {
+            BufferedImage source = ImageIO.read(new ByteArrayInputStream(image));
+            if (source == null) {
+                log.debug("Logo format cannot be decoded. Skipping thumbnails.");
+                return thumbnails;
+            }
+            for (int size : logoProperties.getThumbnailSizes()) {
+                thumbnails.put(String.valueOf(size), scale(source, size));
+            }
+        } catch (IOException e) {
+            log.warn("Failed to generate logo thumbnails", e);
+        }
+        return thumbnails;
+    }
+
+    private byte[] scale(BufferedImage source, int size) throws IOException {
+        double scale = Math.min(1.0, (double) size / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        BufferedImage thumbnail = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = thumbnail.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(thumbnail, "png", out);
+        return out.toByteArray();
+    }
+
+    private byte[] loadDefaultLogo() throws StockDataException {
+        try (InputStream defaultImageStream = getClass().getResourceAsStream(DEFAULT_LOGO_PATH)) {
+            if (defaultImageStream == null) {
+                throw new StockDataException("Default logo image not found in resources.");
+            }
+            return defaultImageStream.readAllBytes();
+        } catch (StockDataException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new StockDataException("Failed to load default logo image", e);
+        }
+    }
+
+    static String hash(byte[] image) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(image));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    static String detectContentType(byte[] image) {
+        if (image.length >= 8 && (image[0] & 0xFF) == 0x89 && image[1] == 'P' && image[2] == 'N' && image[3] == 'G') {
+            return "image/png";
+        }
+        if (image.length >= 3 && (image[0] & 0xFF) == 0xFF && (image[1] & 0xFF) == 0xD8 && (image[2] & 0xFF) == 0xFF) {
+            return "image/jpeg";
+        }
+        if (image.length >= 6 && image[0] == 'G' && image[1] == 'I' && image[2] == 'F') {
+            return "image/gif";
+        }
+        if (image.length >= 12 && image[0] == 'R' && image[1] == 'I' && image[2] == 'F' && image[3] == 'F'
+                && image[8] == 'W' && image[9] == 'E' && image[10] == 'B' && image[11] == 'P') {
+            return "image/webp";
+        }
+        String head = new String(image, 0, Math.min(image.length, 256), StandardCharsets.UTF_8).trim();
+        if (head.startsWith("<svg") || (head.startsWith("<?xml") && head.contains("<svg"))) {
+            return "image/svg+xml";
+        }
+        return "application/octet-stream";
+    }
+
+    /**
+     * Image bytes of one logo variant together with the content type to serve them as.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class LogoVariant {
+        private final byte[] image;
+        private final String contentType;
+    }
+}
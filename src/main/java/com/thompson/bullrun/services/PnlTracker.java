@@ -0,0 +1,240 @@
+package com.thompson.bullrun.services;
+
+import com.thompson.bullrun.common.ValuationKernel;
+import com.thompson.bullrun.entities.HoldingPnl;
+import com.thompson.bullrun.entities.PortfolioPnl;
+import com.thompson.bullrun.entities.StockEntity;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * PnlTracker keeps the unrealized gain or loss of every holding and of the portfolio current as prices move.
+ * <p>
+ * Holdings are loaded from the Stock collection: shares owned, {@code costBasis} as the cost per share, and the stored
+ * close price as the previous close. Each price tick replaces one holding and adjusts the running portfolio totals by
+ * the difference, so a tick costs the same for ten holdings or ten thousand, and reading the portfolio totals never
+ * rescans the holdings. Amounts are kept in micro-units (see {@link ValuationKernel}) so the totals do not drift.
+ */
+@Slf4j
+@Service
+public class PnlTracker {
+
+    private final MongoTemplate mongoTemplate;
+    private final Map<String, Position> positions = new ConcurrentHashMap<>();
+    // Replaced as a whole on every change, so readers always see a consistent set of totals; written under this
+    private volatile Totals totals = Totals.EMPTY;
+
+    public PnlTracker(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    /**
+     * Rebuilds every holding from the Stock collection, valued at its stored close price. Call after the nightly
+     * refresh, when the stored closes become the previous closes of the next session.
+     */
+    public void reload() {
+        Map<String, Position> loaded = new HashMap<>();
+        Totals reloaded = Totals.EMPTY;
+        for (StockEntity stock : mongoTemplate.find(holdingsQuery(new Query()), StockEntity.class)) {
+            Position position = newPosition(stock.getSymbol(), stock.getSharesOwned(), stock.getCostBasis(), stock.getClosePrice());
+            if (position != null) {
+                loaded.put(position.symbol(), position);
+                reloaded = reloaded.replace(null, position, null);
+            }
+        }
+        synchronized (this) {
+            positions.clear();
+            positions.putAll(loaded);
+            totals = reloaded;
+        }
+        log.info("Loaded P&L for {} holdings", loaded.size());
+    }
+
+    /**
+     * Re-reads one holding after its shares or cost changed, or it was added or deleted. A tracked holding keeps its
+     * previous close and latest price.
+     */
+    public void refreshHolding(String symbol) {
+        StockEntity stock = mongoTemplate.findOne(holdingsQuery(new Query(Criteria.where("symbol").is(symbol))), StockEntity.class);
+        if (stock == null) {
+            apply(symbol, 0, 0, 0);
+        } else {
+            apply(symbol, stock.getSharesOwned(), stock.getCostBasis(), stock.getClosePrice());
+        }
+    }
+
+    /**
+     * Sets the shares and cost of a holding; zero shares removes it.
+     */
+    synchronized void apply(String symbol, int sharesOwned, double costBasis, double closePrice) {
+        Position current = positions.get(symbol);
+        Position updated = newPosition(symbol, sharesOwned, costBasis, closePrice);
+        if (updated != null && current != null) {
+            updated = new Position(symbol, updated.shares(), updated.costBasis(), current.previousClose(), current.price(), current.priceUpdatedAt());
+        }
+        if (current != null || updated != null) {
+            replace(current, updated, null);
+        }
+    }
+
+    /**
+     * Values a holding at a new price. Symbols that are not held are ignored.
+     */
+    public void onPrice(String symbol, double price) {
+        if (!positions.containsKey(symbol)) {
+            return;
+        }
+        long priceMicros = ValuationKernel.toMicros(price, ValuationKernel.MICRO_DECIMALS);
+        synchronized (this) {
+            Position current = positions.get(symbol);
+            if (current != null && current.price() != priceMicros) {
+                Instant now = Instant.now();
+                replace(current, new Position(symbol, current.shares(), current.costBasis(), current.previousClose(), priceMicros, now), now);
+            }
+        }
+    }
+
+    private void replace(Position current, Position updated, Instant priceUpdatedAt) {
+        totals = totals.replace(current, updated, priceUpdatedAt);
+        if (updated == null) {
+            positions.remove(current.symbol());
+        } else {
+            positions.put(updated.symbol(), updated);
+        }
+    }
+
+    /**
+     * Returns the portfolio totals, and every holding when requested. Without holdings this does not depend on the
+     * number of holdings.
+     */
+    public PortfolioPnl getPortfolio(boolean includeHoldings) {
+        Totals snapshot;
+        List<HoldingPnl> holdings = null;
+        if (includeHoldings) {
+            List<Position> copy;
+            synchronized (this) {
+                snapshot = totals;
+                copy = new ArrayList<>(positions.values());
+            }
+            copy.sort(Comparator.comparing(Position::symbol));
+            holdings = copy.stream().map(PnlTracker::toHoldingPnl).toList();
+        } else {
+            snapshot = totals;
+        }
+        return new PortfolioPnl(snapshot.count(), dollars(snapshot.marketValue()), dollars(snapshot.costValue()),
+                dollars(snapshot.marketValue() - snapshot.costValue()),
+                percent(snapshot.marketValue() - snapshot.costValue(), snapshot.costValue()),
+                dollars(snapshot.marketValue() - snapshot.previousValue()),
+                percent(snapshot.marketValue() - snapshot.previousValue(), snapshot.previousValue()),
+                snapshot.updatedAt(), holdings);
+    }
+
+    public Optional<HoldingPnl> getHolding(String symbol) {
+        return Optional.ofNullable(positions.get(symbol)).map(PnlTracker::toHoldingPnl);
+    }
+
+    public Set<String> getSymbols() {
+        return Collections.unmodifiableSet(positions.keySet());
+    }
+
+    private static Query holdingsQuery(Query query) {
+        query.fields().include("symbol", "sharesOwned", "costBasis", "closePrice");
+        return query;
+    }
+
+    private static Position newPosition(String symbol, int sharesOwned, double costBasis, double closePrice) {
+        if (symbol == null || sharesOwned <= 0) {
+            return null;
+        }
+        long close = ValuationKernel.toMicros(closePrice, ValuationKernel.MICRO_DECIMALS);
+        return new Position(symbol, sharesOwned, ValuationKernel.toMicros(costBasis, ValuationKernel.MICRO_DECIMALS), close, close, null);
+    }
+
+    private static HoldingPnl toHoldingPnl(Position position) {
+        long marketValue = position.marketValue();
+        long costValue = position.costValue();
+        long previousValue = position.previousValue();
+        return new HoldingPnl(position.symbol(), position.shares(),
+                ValuationKernel.toDouble(position.costBasis()), ValuationKernel.toDouble(position.previousClose()),
+                ValuationKernel.toDouble(position.price()), dollars(marketValue), dollars(costValue),
+                dollars(marketValue - costValue), percent(marketValue - costValue, costValue),
+                dollars(marketValue - previousValue), percent(marketValue - previousValue, previousValue),
+                position.priceUpdatedAt());
+    }
+
+    private static double dollars(long micros) {
+        return ValuationKernel.toDouble(ValuationKernel.round(micros, 2));
+    }
+
+    private static Double percent(long change, long base) {
+        return base > 0 ? (double) change / base : null;
+    }
+
+    /**
+     * One holding; prices and costs are per share, in micro-units.
+     */
+    private record Position(String symbol, int shares, long costBasis, long previousClose, long price, Instant priceUpdatedAt) {
+
+        long marketValue() {
+            return Math.multiplyExact(price, shares);
+        }
+
+        long costValue() {
+            return Math.multiplyExact(costBasis, shares);
+        }
+
+        long previousValue() {
+            return Math.multiplyExact(previousClose, shares);
+        }
+    }
+
+    private record Totals(int count, long marketValue, long costValue, long previousValue, Instant updatedAt) {
+
+        static final Totals EMPTY = new Totals(0, 0, 0, 0, null);
+
+        /**
+         * Totals after one holding changed; either side may be null for an added or removed holding.
+         */
+        Totals replace(Position removed, Position added, Instant priceUpdatedAt) {
+            int newCount = count;
+            long newMarketValue = marketValue;
+            long newCostValue = costValue;
+            long newPreviousValue = previousValue;
+            if (removed != null) {
+                newCount--;
+                newMarketValue = Math.subtractExact(newMarketValue, removed.marketValue());
+                newCostValue = Math.subtractExact(newCostValue, removed.costValue());
+                newPreviousValue = Math.subtractExact(newPreviousValue, removed.previousValue());
+            }
+            if (added != null) {
+                newCount++;
+                newMarketValue = Math.addExact(newMarketValue, added.marketValue());
+                newCostValue = Math.addExact(newCostValue, added.costValue());
+                newPreviousValue = Math.addExact(newPreviousValue, added.previousValue());
+            }
+            return new Totals(newCount, newMarketValue, newCostValue, newPreviousValue,
+                    priceUpdatedAt == null ? updatedAt : priceUpdatedAt);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.thompson.bullrun.services;
+
+import com.thompson.bullrun.common.ReturnsMath;
+import com.thompson.bullrun.common.TtlCache;
+import com.thompson.bullrun.entities.BarSeries;
+import com.thompson.bullrun.entities.PortfolioAnalytics;
+import com.thompson.bullrun.entities.ReturnMetrics;
+import com.thompson.bullrun.entities.StockSummary;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PortfolioAnalyticsService computes return and risk statistics of the portfolio and each holding from the stored
+ * daily bars.
+ * <p>
+ * All bars of the range are read in one call, placed on a shared day axis as primitive arrays, and each holding is
+ * evaluated in parallel on the common fork-join pool. The portfolio's daily return is the value-weighted return of the
+ * holdings that have a price on both days. Results are cached per bar generation and holdings, so they are reused until
+ * the next refresh stores new bars or the holdings change.
+ */
+@Slf4j
+@Service
+public class PortfolioAnalyticsService {
+
+    public static final String BENCHMARK_SYMBOL = "SPX";
+
+    // Entries of older generations are never requested again and age out of the LRU
+    private static final Duration CACHE_TTL = Duration.ofDays(1);
+
+    private final StockService stockService;
+    private final LocalBarCache localBarCache;
+    private final double riskFreeRate;
+    private final TtlCache<CacheKey, PortfolioAnalytics> cache;
+
+    public PortfolioAnalyticsService(StockService stockService, LocalBarCache localBarCache,
+                                     @Value("${analytics.riskFreeRate:0.0}") double riskFreeRate,
+                                     @Value("${analytics.cacheSize:64}") int cacheSize) {
+        this.stockService = stockService;
+        this.localBarCache = localBarCache;
+        this.riskFreeRate = riskFreeRate;
+        this.cache = new TtlCache<>(cacheSize);
+    }
+
+    /**
+     * Analyzes the current holdings between the two dates, inclusive.
+     *
+     * @param window trading days of the rolling volatility window
+     * @throws IllegalArgumentException if from is after to or the window is shorter than two days
+     */
+    public PortfolioAnalytics analyze(LocalDate from, LocalDate to, int window) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (window < 2) {
+            throw new IllegalArgumentException("window must be at least 2");
+        }
+        Map<String, Integer> holdings = new TreeMap<>();
+        for (StockSummary stock : stockService.getStockSummaries(List.of("symbol", "sharesOwned"))) {
+            if (stock.getSharesOwned() != null && stock.getSharesOwned() > 0) {
+                holdings.put(stock.getSymbol(), stock.getSharesOwned());
+            }
+        }
+        CacheKey key = new CacheKey(localBarCache.getGeneration(), from, to, window, holdings);
+        return cache.get(key, CACHE_TTL, () -> compute(from, to, window, holdings), result -> true);
+    }
+
+    private PortfolioAnalytics compute(LocalDate from, LocalDate to, int window, Map<String, Integer> holdings) {
+        long start = System.nanoTime();
+        Set<String> symbols = new LinkedHashSet<>(holdings.keySet());
+        symbols.add(BENCHMARK_SYMBOL);
+        Map<String, BarSeries> bars = localBarCache.findBars(symbols, from, to);
+        long readMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        int[] axis = dayAxis(bars.values());
+        double[] benchmarkReturns = ReturnsMath.dailyReturns(closesOnAxis(bars.get(BENCHMARK_SYMBOL), axis));
+
+        List<HoldingSeries> series = holdings.entrySet().parallelStream()
+                .map(holding -> {
+                    double[] closes = closesOnAxis(bars.get(holding.getKey()), axis);
+                    double[] returns = ReturnsMath.dailyReturns(closes);
+                    return new HoldingSeries(holding.getValue(), closes,
+                            metrics(holding.getKey(), returns, benchmarkReturns, window));
+                })
+                .toList();
+
+        ReturnMetrics portfolio = metrics(null, portfolioReturns(series, axis.length), benchmarkReturns, window);
+        PortfolioAnalytics analytics = new PortfolioAnalytics(from, to, BENCHMARK_SYMBOL, window, portfolio,
+                series.stream().map(HoldingSeries::metrics).toList());
+        log.info("Computed analytics for {} holdings over {} days in {} ms (bar read: {} ms)", holdings.size(), axis.length,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), readMillis);
+        return analytics;
+    }
+
+    /**
+     * Daily return of the current holdings: each day weighs a holding's return by its value on the previous day, over
+     * the holdings priced on both days. The result is time-weighted, since no cash flows enter the series.
+     */
+    private static double[] portfolioReturns(List<HoldingSeries> series, int days) {
+        double[] gain = new double[days];
+        double[] base = new double[days];
+        for (HoldingSeries holding : series) {
+            double[] closes = holding.closes();
+            for (int i = 1; i < days; i++) {
+                double previous = closes[i - 1];
+                double current = closes[i];
+                if (previous > 0 && !Double.isNaN(current)) {
+                    gain[i] += holding.shares() * (current - previous);
+                    base[i] += holding.shares() * previous;
+                }
+            }
+        }
+        double[] returns = new double[days];
+        for (int i = 0; i < days; i++) {
+            returns[i] = base[i] > 0 ? gain[i] / base[i] : Double.NaN;
+        }
+        return returns;
+    }
+
+    private ReturnMetrics metrics(String symbol, double[] returns, double[] benchmarkReturns, int window) {
+        int observations = ReturnsMath.observations(returns);
+        double totalReturn = observations > 0 ? ReturnsMath.compound(returns) : Double.NaN;
+        double[] rolling = ReturnsMath.rollingVolatility(returns, window);
+        return new ReturnMetrics(symbol, observations,
+                valueOf(totalReturn),
+                valueOf(ReturnsMath.annualize(totalReturn, observations)),
+                valueOf(ReturnsMath.volatility(returns)),
+                valueOf(rolling.length > 0 ? rolling[rolling.length - 1] : Double.NaN),
+                observations > 0 ? ReturnsMath.maxDrawdown(returns) : null,
+                valueOf(ReturnsMath.beta(returns, benchmarkReturns)),
+                valueOf(ReturnsMath.sharpe(returns, riskFreeRate)));
+    }
+
+    /**
+     * Every day on which at least one of the series has a bar, ascending.
+     */
+    private static int[] dayAxis(Collection<BarSeries> series) {
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (BarSeries bars : series) {
+            if (bars.size() > 0) {
+                min = Math.min(min, bars.getDays()[0]);
+                max = Math.max(max, bars.getDays()[bars.size() - 1]);
+            }
+        }
+        if (min > max) {
+            return new int[0];
+        }
+        boolean[] present = new boolean[max - min + 1];
+        int count = 0;
+        for (BarSeries bars : series) {
+            for (int day : bars.getDays()) {
+                if (!present[day - min]) {
+                    present[day - min] = true;
+                    count++;
+                }
+            }
+        }
+        int[] axis = new int[count];
+        int next = 0;
+        for (int i = 0; i < present.length; i++) {
+            if (present[i]) {
+                axis[next++] = min + i;
+            }
+        }
+        return axis;
+    }
+
+    private static double[] closesOnAxis(BarSeries bars, int[] axis) {
+        if (bars == null) {
+            double[] missing = new double[axis.length];
+            Arrays.fill(missing, Double.NaN);
+            return missing;
+        }
+        return ReturnsMath.alignCloses(axis, bars.getDays(), bars.getClose());
+    }
+
+    private static Double valueOf(double value) {
+        return Double.isFinite(value) ? value : null;
+    }
+
+    private record HoldingSeries(int shares, double[] closes, ReturnMetrics metrics) {
+    }
+
+    private record CacheKey(long generation, LocalDate from, LocalDate to, int window, Map<String, Integer> holdings) {
+    }
+}
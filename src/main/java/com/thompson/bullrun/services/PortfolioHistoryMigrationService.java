@@ -0,0 +1,58 @@
+package com.thompson.bullrun.services;
+
+import com.thompson.bullrun.entities.PortfolioHistoryEntity;
+import com.thompson.bullrun.entities.UserEntity;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Creates the PortfolioHistory time-series collection and moves legacy total-value rows out of Users into it.
+ * Legacy rows are the UserEntity documents that carry a date but no first name. Each batch is inserted before it is
+ * deleted, so an interrupted run leaves at worst a few duplicated points and never loses any.
+ */
+@Slf4j
+@Service
+public class PortfolioHistoryMigrationService {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+
+    public PortfolioHistoryMigrationService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateTotalValueRows() {
+        if (!mongoTemplate.collectionExists(PortfolioHistoryEntity.class)) {
+            mongoTemplate.createCollection(PortfolioHistoryEntity.class);
+            log.info("Created time-series collection {}", mongoTemplate.getCollectionName(PortfolioHistoryEntity.class));
+        }
+
+        String usersCollection = mongoTemplate.getCollectionName(UserEntity.class);
+        Query legacyRows = new Query(Criteria.where("firstName").exists(false).and("date").exists(true)).limit(BATCH_SIZE);
+        legacyRows.fields().include("_id", "date", "totalValue");
+
+        int migrated = 0;
+        List<PortfolioHistoryEntity> batch;
+        while (!(batch = mongoTemplate.find(legacyRows, PortfolioHistoryEntity.class, usersCollection)).isEmpty()) {
+            List<String> ids = batch.stream().map(PortfolioHistoryEntity::getId).toList();
+            mongoTemplate.insert(batch, PortfolioHistoryEntity.class);
+            mongoTemplate.remove(new Query(Criteria.where("_id").in(ids)), usersCollection);
+            migrated += batch.size();
+        }
+        if (migrated > 0) {
+            log.info("Moved {} portfolio total rows from {} into the portfolio history", migrated, usersCollection);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.thompson.bullrun.services;
+
+import com.thompson.bullrun.entities.PortfolioHistoryEntity;
+import com.thompson.bullrun.entities.PortfolioRollupEntity;
+import com.thompson.bullrun.entities.RollupGranularity;
+import com.thompson.bullrun.repositories.PortfolioRollupRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * PortfolioRollupService keeps weekly, monthly and yearly OHLC rollups of the portfolio total value.
+ * Each recorded daily total is folded into its three periods with a single unordered bulk upsert, so rollups are never rebuilt.
+ * Open and close assume totals are recorded in date order, which holds for the refresh job and the one-time backfill.
+ */
+@Slf4j
+@Service
+public class PortfolioRollupService {
+
+    private final MongoTemplate mongoTemplate;
+    private final PortfolioRollupRepository portfolioRollupRepository;
+
+    public PortfolioRollupService(MongoTemplate mongoTemplate, PortfolioRollupRepository portfolioRollupRepository) {
+        this.mongoTemplate = mongoTemplate;
+        this.portfolioRollupRepository = portfolioRollupRepository;
+    }
+
+    /**
+     * Folds a daily total into the week, month and year containing its date.
+     */
+    public void record(LocalDateTime date, double totalValue) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PortfolioRollupEntity.class);
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            LocalDateTime periodStart = granularity.periodStart(date.toLocalDate()).atStartOfDay();
+            Update update = new Update()
+                    .setOnInsert("granularity", granularity)
+                    .setOnInsert("periodStart", periodStart)
+                    .setOnInsert("open", totalValue)
+                    .setOnInsert("firstDate", date)
+                    .max("high", totalValue)
+                    .min("low", totalValue)
+                    .set("close", totalValue)
+                    .set("lastDate", date)
+                    .inc("count", 1);
+            bulk.upsert(new Query(Criteria.where("_id").is(rollupId(granularity, periodStart))), update);
+        }
+        bulk.execute();
+    }
+
+    /**
+     * Rollups of one granularity whose period starts in [from, to), oldest first.
+     * The lower bound is widened to the start of its period so the period containing {@code from} is included.
+     */
+    public List<PortfolioRollupEntity> findRollups(RollupGranularity granularity, LocalDateTime from, LocalDateTime to) {
+        return portfolioRollupRepository.findByGranularityAndPeriodStartGreaterThanEqualAndPeriodStartLessThanOrderByPeriodStartAsc(
+                granularity, granularity.periodStart(from.toLocalDate()).atStartOfDay(), to);
+    }
+
+    public long countRollups(RollupGranularity granularity, LocalDateTime from, LocalDateTime to) {
+        return portfolioRollupRepository.countByGranularityAndPeriodStartGreaterThanEqualAndPeriodStartLessThan(
+                granularity, granularity.periodStart(from.toLocalDate()).atStartOfDay(), to);
+    }
+
+    /**
+     * Approximate number of daily totals in [from, to), summed from the monthly rollups so it costs a few rows, not a scan.
+     * Partial months at either end are counted in full.
+     */
+    public long estimateDailyPoints(LocalDateTime from, LocalDateTime to) {
+        long points = 0;
+        for (PortfolioRollupEntity month : findRollups(RollupGranularity.MONTH, from, to)) {
+            points += month.getCount();
+        }
+        return points;
+    }
+
+    /**
+     * Builds the rollups from the existing history the first time the application starts with an empty rollup collection.
+     * Runs after the portfolio history migration, so legacy totals moved out of Users are included.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillRollups() {
+        if (portfolioRollupRepository.count() > 0) {
+            return;
+        }
+
+        Map<String, PortfolioRollupEntity> rollups = new LinkedHashMap<>();
+        Query history = new Query().with(Sort.by(Sort.Direction.ASC, "date"));
+        try (Stream<PortfolioHistoryEntity> points = mongoTemplate.stream(history, PortfolioHistoryEntity.class)) {
+            points.forEach(point -> {
+                for (RollupGranularity granularity : RollupGranularity.values()) {
+                    fold(rollups, granularity, point.getDate(), point.getTotalValue());
+                }
+            });
+        }
+        if (!rollups.isEmpty()) {
+            mongoTemplate.insertAll(new ArrayList<>(rollups.values()));
+            log.info("Backfilled {} portfolio rollups from the portfolio history", rollups.size());
+        }
+    }
+
+    private void fold(Map<String, PortfolioRollupEntity> rollups, RollupGranularity granularity, LocalDateTime date, double totalValue) {
+        LocalDateTime periodStart = granularity.periodStart(date.toLocalDate()).atStartOfDay();
+        String id = rollupId(granularity, periodStart);
+        PortfolioRollupEntity rollup = rollups.get(id);
+        if (rollup == null) {
+            rollups.put(id, new PortfolioRollupEntity(id, granularity, periodStart, totalValue, totalValue, totalValue, totalValue, date, date, 1));
+            return;
+        }
+        rollup.setHigh(Math.max(rollup.getHigh(), totalValue));
+        rollup.setLow(Math.min(rollup.getLow(), totalValue));
+        rollup.setClose(totalValue);
+        rollup.setLastDate(date);
+        rollup.setCount(rollup.getCount() + 1);
+    }
+
+    private static String rollupId(RollupGranularity granularity, LocalDateTime periodStart) {
+        return granularity + ":" + periodStart.toLocalDate();
+    }
+}
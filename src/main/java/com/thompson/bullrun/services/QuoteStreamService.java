@@ -0,0 +1,222 @@
+package com.thompson.bullrun.services;
+
+import com.thompson.bullrun.entities.QuoteResult;
+import com.thompson.bullrun.entities.QuoteUpdate;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * QuoteStreamService pushes price updates to Server-Sent Events subscribers.
+ * A single poller fetches every subscribed symbol in one batch and fans the changes out to all subscribers.
+ * Each subscriber keeps only the latest pending update per symbol, so a slow consumer receives coalesced
+ * updates instead of an ever-growing backlog, and its writes run on its own virtual thread.
+ * Every price change is also passed to the {@link PnlTracker}; with {@code pnl.pollHoldings} enabled the poller
+ * includes all held symbols, so the P&L stays live without any subscriber.
+ */
+@Slf4j
+@Service
+public class QuoteStreamService {
+
+    private final BatchQuoteClient batchQuoteClient;
+    private final PnlTracker pnlTracker;
+    private final boolean pollHoldings;
+    private final int maxSubscribers;
+    private final int maxSymbolsPerSubscriber;
+    private final Duration emitterTimeout;
+    private final Map<String, Set<Subscriber>> subscribersBySymbol = new ConcurrentHashMap<>();
+    private final Map<String, QuoteUpdate> latestQuotes = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    public QuoteStreamService(BatchQuoteClient batchQuoteClient, PnlTracker pnlTracker,
+                              @Value("${pnl.pollHoldings:false}") boolean pollHoldings,
+                              @Value("${stream.maxSubscribers:10000}") int maxSubscribers,
+                              @Value("${stream.maxSymbolsPerSubscriber:50}") int maxSymbolsPerSubscriber,
+                              @Value("${stream.emitterTimeout:PT30M}") Duration emitterTimeout) {
+        this.batchQuoteClient = batchQuoteClient;
+        this.pnlTracker = pnlTracker;
+        this.pollHoldings = pollHoldings;
+        this.maxSubscribers = maxSubscribers;
+        this.maxSymbolsPerSubscriber = maxSymbolsPerSubscriber;
+        this.emitterTimeout = emitterTimeout;
+    }
+
+    /**
+     * Registers a subscriber for the given symbols and immediately sends the latest known quotes.
+     *
+     * @param symbols symbols to subscribe to
+     * @return the emitter for the subscriber's event stream
+     * @throws IllegalStateException    if the node already serves the maximum number of subscribers
+     * @throws IllegalArgumentException if no symbols or too many symbols are requested
+     */
+    public SseEmitter subscribe(Collection<String> symbols) {
+        Set<String> normalized = new LinkedHashSet<>();
+        for (String symbol : symbols) {
+            if (symbol != null && !symbol.isBlank()) {
+                normalized.add(symbol.trim().toUpperCase(Locale.ROOT));
+            }
+        }
+        if (normalized.isEmpty() || normalized.size() > maxSymbolsPerSubscriber) {
+            throw new IllegalArgumentException("Between 1 and " + maxSymbolsPerSubscriber + " symbols are required");
+        }
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new IllegalStateException("Maximum number of stream subscribers reached");
+        }
+
+        SseEmitter emitter = new SseEmitter(emitterTimeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter, normalized);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+
+        for (String symbol : normalized) {
+            // Added inside compute so a concurrent close cannot remove the set between creating and joining it
+            subscribersBySymbol.compute(symbol, (key, subscribers) -> {
+                Set<Subscriber> joined = subscribers == null ? ConcurrentHashMap.newKeySet() : subscribers;
+                joined.add(subscriber);
+                return joined;
+            });
+            QuoteUpdate latest = latestQuotes.get(symbol);
+            if (latest != null) {
+                subscriber.offer(latest);
+            }
+        }
+        log.info("New quote stream subscriber for symbols: {}. Active subscribers: {}", normalized, subscriberCount.get());
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    /**
+     * Polls all subscribed symbols, and the held symbols when enabled, in one batch and publishes the prices that changed.
+     */
+    @Scheduled(fixedDelayString = "${stream.pollMillis:5000}")
+    public void pollSubscribedSymbols() {
+        Set<String> polled = new LinkedHashSet<>(subscribersBySymbol.keySet());
+        if (pollHoldings) {
+            polled.addAll(pnlTracker.getSymbols());
+        }
+        List<String> symbols = new ArrayList<>(polled);
+        if (symbols.isEmpty()) {
+            return;
+        }
+
+        Map<String, QuoteResult> quotes = batchQuoteClient.fetchPrices(symbols);
+        long now = System.currentTimeMillis();
+        for (QuoteResult quote : quotes.values()) {
+            if (!quote.isSuccess()) {
+                log.debug("Skipping stream update for symbol: {}. Error: {}", quote.getSymbol(), quote.getError());
+                continue;
+            }
+            QuoteUpdate update = new QuoteUpdate(quote.getSymbol(), quote.getPrice(), now);
+            QuoteUpdate previous = latestQuotes.put(quote.getSymbol(), update);
+            if (previous == null || previous.getPrice() != update.getPrice()) {
+                publish(update);
+                pnlTracker.onPrice(update.getSymbol(), update.getPrice());
+            }
+        }
+    }
+
+    private void publish(QuoteUpdate update) {
+        Set<Subscriber> subscribers = subscribersBySymbol.get(update.getSymbol());
+        if (subscribers != null) {
+            subscribers.forEach(subscriber -> subscriber.offer(update));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+    }
+
+    /**
+     * A connected client. Pending updates are keyed by symbol so a newer price replaces an unsent older one.
+     */
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final Set<String> symbols;
+        private final Map<String, QuoteUpdate> pending = new ConcurrentHashMap<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter, Set<String> symbols) {
+            this.emitter = emitter;
+            this.symbols = symbols;
+        }
+
+        void offer(QuoteUpdate update) {
+            if (closed.get()) {
+                return;
+            }
+            pending.put(update.getSymbol(), update);
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                try {
+                    Iterator<Map.Entry<String, QuoteUpdate>> iterator = pending.entrySet().iterator();
+                    while (iterator.hasNext() && !closed.get()) {
+                        Map.Entry<String, QuoteUpdate> entry = iterator.next();
+                        QuoteUpdate update = entry.getValue();
+                        if (pending.remove(entry.getKey(), update)) {
+                            emitter.send(SseEmitter.event().name("quote").id(String.valueOf(update.getTimestamp()))
+                                    .data(update, MediaType.APPLICATION_JSON));
+                        }
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    log.debug("Quote stream subscriber disconnected: {}", e.getMessage());
+                    emitter.completeWithError(e);
+                    close();
+                    return;
+                } finally {
+                    draining.set(false);
+                }
+            } while (!pending.isEmpty() && !closed.get() && draining.compareAndSet(false, true));
+        }
+
+        void close() {
+            if (closed.compareAndSet(false, true)) {
+                for (String symbol : symbols) {
+                    subscribersBySymbol.computeIfPresent(symbol, (key, subscribers) -> {
+                        subscribers.remove(this);
+                        if (subscribers.isEmpty()) {
+                            latestQuotes.remove(key);
+                            return null;
+                        }
+                        return subscribers;
+                    });
+                }
+                pending.clear();
+                subscriberCount.decrementAndGet();
+                log.debug("Quote stream subscriber closed. Active subscribers: {}", subscriberCount.get());
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.thompson.bullrun.services;
+
+import com.thompson.bullrun.entities.StockEntity;
+import com.thompson.bullrun.repositories.StockRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * StartupWarmupService decides after startup whether the persisted prices need a refresh.
+ * The application serves the last persisted prices immediately; a warm-up refresh only runs, on a virtual thread,
+ * when the most recent scheduled refresh was missed. Its progress is reported as a health component that never
+ * affects readiness or liveness.
+ */
+@Slf4j
+@Service("startupWarmup")
+public class StartupWarmupService implements HealthIndicator {
+
+    public enum State { PENDING, SKIPPED, RUNNING, COMPLETED, FAILED }
+
+    private final StockRepository stockRepository;
+    private final DailyStockDataService dailyStockDataService;
+    private final CronExpression refreshCron;
+    private final boolean enabled;
+
+    private volatile State state = State.PENDING;
+    private volatile LocalDateTime lastRefresh;
+    private volatile long startupMillis = -1;
+    private volatile long warmupMillis = -1;
+
+    public StartupWarmupService(StockRepository stockRepository, DailyStockDataService dailyStockDataService,
+                                @Value("${refresh.cron:" + DailyStockDataService.DEFAULT_REFRESH_CRON + "}") String refreshCron,
+                                @Value("${startup.warmup.enabled:true}") boolean enabled) {
+        this.stockRepository = stockRepository;
+        this.dailyStockDataService = dailyStockDataService;
+        this.refreshCron = CronExpression.parse(refreshCron);
+        this.enabled = enabled;
+    }
+
+    /**
+     * Runs after the startup migrations, so a warm-up refresh only ever sees migrated logos and history.
+     */
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        startupMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+        log.info("Application ready {} ms after JVM start", startupMillis);
+
+        lastRefresh = stockRepository.findFirstByOrderByTimestampDesc().map(StockEntity::getTimestamp).orElse(null);
+        if (!enabled || !isStale(lastRefresh, ZonedDateTime.now(ZoneId.of(DailyStockDataService.REFRESH_ZONE)))) {
+            state = State.SKIPPED;
+            log.info("Serving persisted prices last refreshed at {}. No warm-up refresh needed.", lastRefresh);
+            return;
+        }
+
+        state = State.RUNNING;
+        log.info("Persisted prices last refreshed at {} missed the latest scheduled refresh. Starting warm-up refresh.", lastRefresh);
+        Thread.ofVirtual().name("startup-warmup").start(this::warmUp);
+    }
+
+    private void warmUp() {
+        long start = System.nanoTime();
+        try {
+            dailyStockDataService.updateStockPrices();
+            state = State.COMPLETED;
+        } catch (RuntimeException e) {
+            state = State.FAILED;
+            log.error("Warm-up refresh failed. Serving persisted prices until the next scheduled refresh.", e);
+        } finally {
+            warmupMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+            log.info("Warm-up refresh finished with state {} in {} ms", state, warmupMillis);
+        }
+    }
+
+    /**
+     * Prices are stale when they predate the most recent time the refresh schedule fired.
+     * An empty portfolio is never stale, since there is nothing to refresh.
+     */
+    boolean isStale(LocalDateTime lastRefresh, ZonedDateTime now) {
+        if (lastRefresh == null) {
+            return false;
+        }
+        Optional<ZonedDateTime> lastScheduledRun = lastScheduledRun(now);
+        if (lastScheduledRun.isEmpty()) {
+            return false;
+        }
+        ZonedDateTime refreshedAt = lastRefresh.atZone(ZoneId.systemDefault());
+        return refreshedAt.isBefore(lastScheduledRun.get());
+    }
+
+    private Optional<ZonedDateTime> lastScheduledRun(ZonedDateTime now) {
+        ZonedDateTime candidate = refreshCron.next(now.minusDays(8));
+        ZonedDateTime last = null;
+        while (candidate != null && !candidate.isAfter(now)) {
+            last = candidate;
+            candidate = refreshCron.next(candidate);
+        }
+        return Optional.ofNullable(last);
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    @Override
+    public Health health() {
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("state", state);
+        details.put("lastRefresh", lastRefresh == null ? "never" : lastRefresh);
+        details.put("startupMillis", startupMillis);
+        details.put("warmupMillis", warmupMillis);
+        Health.Builder health = state == State.FAILED ? Health.unknown() : Health.up();
+        return health.withDetails(details).build();
+    }
+}
@@ -0,0 +1,114 @@
+package com.thompson.bullrun.services;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.thompson.bullrun.entities.StockEntity;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * StockBulkWriter persists per-symbol partial updates as unordered bulk writes, one round trip per batch.
+ * Unordered batches keep going past a failed operation, so one bad document does not block the rest.
+ * Failures are reported per symbol instead of failing the whole write.
+ */
+@Slf4j
+@Component
+public class StockBulkWriter {
+
+    private final MongoTemplate mongoTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int batchSize;
+
+    public StockBulkWriter(MongoTemplate mongoTemplate, MeterRegistry meterRegistry, @Value("${refresh.bulkBatchSize:500}") int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("refresh.bulkBatchSize must be at least 1");
+        }
+        this.mongoTemplate = mongoTemplate;
+        this.meterRegistry = meterRegistry;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Applies each update to the stock with the matching symbol.
+     *
+     * @param updates partial updates keyed by symbol, either update documents or aggregation pipelines
+     * @return matched and modified counts, failed symbols and the latency of every batch
+     */
+    public BulkWriteReport write(Map<String, ? extends UpdateDefinition> updates) {
+        List<Map.Entry<String, ? extends UpdateDefinition>> entries = new ArrayList<>(updates.entrySet());
+        List<String> failedSymbols = new ArrayList<>();
+        List<Long> batchMillis = new ArrayList<>();
+        long matched = 0;
+        long modified = 0;
+
+        for (int from = 0; from < entries.size(); from += batchSize) {
+            List<Map.Entry<String, ? extends UpdateDefinition>> batch = entries.subList(from, Math.min(from + batchSize, entries.size()));
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, StockEntity.class);
+            batch.forEach(entry -> bulk.updateOne(new Query(Criteria.where("symbol").is(entry.getKey())), entry.getValue()));
+
+            Timer.Sample sample = Timer.start(meterRegistry);
+            long start = System.nanoTime();
+            String outcome = "success";
+            try {
+                BulkWriteResult result = bulk.execute();
+                matched += result.getMatchedCount();
+                modified += result.getModifiedCount();
+            } catch (BulkOperationException e) {
+                outcome = "partial";
+                matched += e.getResult().getMatchedCount();
+                modified += e.getResult().getModifiedCount();
+                for (BulkWriteError error : e.getErrors()) {
+                    String symbol = batch.get(error.getIndex()).getKey();
+                    failedSymbols.add(symbol);
+                    log.error("Bulk write failed for stock: {} ({})", symbol, error.getMessage());
+                }
+            } catch (DataAccessException e) {
+                outcome = "failure";
+                batch.forEach(entry -> failedSymbols.add(entry.getKey()));
+                log.error("Bulk write of {} stocks failed", batch.size(), e);
+            } finally {
+                batchMillis.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                sample.stop(meterRegistry.timer("bullrun.refresh.bulk.batch", "outcome", outcome));
+            }
+        }
+
+        BulkWriteReport report = new BulkWriteReport(updates.size(), batchMillis.size(), matched, modified,
+                Collections.unmodifiableList(failedSymbols), Collections.unmodifiableList(batchMillis));
+        log.info("Bulk wrote {} stock updates in {} batches of up to {}: {} matched, {} modified, {} failed; batch latencies {} ms",
+                report.getUpdates(), report.getBatches(), batchSize, report.getMatched(), report.getModified(),
+                report.getFailedSymbols().size(), report.getBatchMillis());
+        return report;
+    }
+
+    /**
+     * Outcome of a bulk write. Updates that neither matched nor failed target stocks deleted while the refresh ran.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class BulkWriteReport {
+        private final int updates;
+        private final int batches;
+        private final long matched;
+        private final long modified;
+        private final List<String> failedSymbols;
+        private final List<Long> batchMillis;
+    }
+}
@@ -0,0 +1,64 @@
+package com.thompson.bullrun.services;
+
+import com.thompson.bullrun.entities.StockEntity;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Creates the unique index on Stock.symbol once the stored stocks allow it.
+ * Older versions could store the same symbol twice, so the index is not declared on the entity, where a failed
+ * creation would abort startup. When duplicates exist they are logged and the index is skipped until they are removed;
+ * addStock still refuses an existing symbol, only two concurrent adds of the same new symbol are no longer caught.
+ */
+@Slf4j
+@Service
+public class StockIndexMigrationService {
+
+    // The name the index had when it was declared with @Indexed, so an existing index is recognised
+    static final String SYMBOL_INDEX = "symbol";
+    private static final int MAX_REPORTED_DUPLICATES = 50;
+
+    private final MongoTemplate mongoTemplate;
+
+    public StockIndexMigrationService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureUniqueSymbolIndex() {
+        try {
+            List<String> duplicates = findDuplicateSymbols();
+            if (!duplicates.isEmpty()) {
+                log.error("Stock symbols stored more than once: {}. Skipping the unique symbol index until the duplicates are removed.", duplicates);
+                return;
+            }
+            mongoTemplate.indexOps(StockEntity.class).ensureIndex(new Index("symbol", Sort.Direction.ASC).unique().named(SYMBOL_INDEX));
+        } catch (DataAccessException e) {
+            log.error("Failed to create the unique symbol index on the Stock collection", e);
+        }
+    }
+
+    private List<String> findDuplicateSymbols() {
+        Aggregation duplicates = Aggregation.newAggregation(
+                Aggregation.group("symbol").count().as("count"),
+                Aggregation.match(Criteria.where("count").gt(1)),
+                Aggregation.limit(MAX_REPORTED_DUPLICATES));
+        return mongoTemplate.aggregate(duplicates, StockEntity.class, Document.class).getMappedResults().stream()
+                .map(group -> String.valueOf(group.get("_id")))
+                .toList();
+    }
+}
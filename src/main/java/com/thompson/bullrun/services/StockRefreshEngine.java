@@ -0,0 +1,165 @@
+package com.thompson.bullrun.services;
+
+import com.thompson.bullrun.common.ValuationKernel;
+import com.thompson.bullrun.entities.StockEntity;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * StockRefreshEngine fans per-symbol refresh work out over virtual threads.
+ * A semaphore caps how many symbols are refreshed at once so the upstream providers
+ * are not flooded, and a failure for one symbol never affects the others.
+ */
+@Slf4j
+@Component
+public class StockRefreshEngine {
+
+    private final int maxConcurrency;
+
+    public StockRefreshEngine(@Value("${refresh.maxConcurrency:16}") int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("refresh.maxConcurrency must be at least 1");
+        }
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    /**
+     * Work performed for a single stock. Implementations time their individual phases through the given timings.
+     */
+    @FunctionalInterface
+    public interface RefreshTask {
+        void refresh(StockEntity stock, PhaseTimings timings);
+    }
+
+    /**
+     * Refreshes every stock concurrently and waits for all of them to finish.
+     * The total value is summed in input order once all tasks are done, so the result does not depend on scheduling.
+     *
+     * @param stocks stocks to refresh, modified in place
+     * @param task   per-stock refresh work
+     * @return report with the aggregated value, failure count and timings
+     */
+    public RefreshReport refresh(List<StockEntity> stocks, RefreshTask task) {
+        PhaseTimings timings = new PhaseTimings();
+        LongAdder busyNanos = new LongAdder();
+        Semaphore permits = new Semaphore(maxConcurrency);
+        List<Future<Boolean>> results = new ArrayList<>(stocks.size());
+
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (StockEntity stock : stocks) {
+                results.add(executor.submit(() -> refreshOne(stock, task, timings, permits, busyNanos)));
+            }
+        }
+        long wallNanos = System.nanoTime() - start;
+
+        // Summed in micro-units so the total carries no floating-point drift across hundreds of holdings
+        long totalMicros = 0;
+        int failures = 0;
+        for (int i = 0; i < stocks.size(); i++) {
+            if (succeeded(results.get(i))) {
+                totalMicros = Math.addExact(totalMicros, ValuationKernel.toMicros(stocks.get(i).getCurrentValue(), 2));
+            } else {
+                failures++;
+            }
+        }
+
+        RefreshReport report = new RefreshReport(stocks.size(), failures, ValuationKernel.toDouble(totalMicros),
+                TimeUnit.NANOSECONDS.toMillis(wallNanos), TimeUnit.NANOSECONDS.toMillis(busyNanos.sum()), timings.snapshotMillis());
+        log.info("Refreshed {} stocks ({} failed) with concurrency {} in {} ms wall-clock; serial-equivalent {} ms (speedup {}x); phases: {}",
+                report.getStockCount(), report.getFailureCount(), maxConcurrency, report.getWallMillis(),
+                report.getSerialEquivalentMillis(), String.format("%.1f", report.getSpeedup()), report.getPhaseMillis());
+        return report;
+    }
+
+    private boolean refreshOne(StockEntity stock, RefreshTask task, PhaseTimings timings, Semaphore permits, LongAdder busyNanos) {
+        permits.acquireUninterruptibly();
+        long start = System.nanoTime();
+        try {
+            task.refresh(stock, timings);
+            return true;
+        } catch (RuntimeException e) {
+            log.error("Error updating price for stock: {}", stock.getSymbol(), e);
+            return false;
+        } finally {
+            busyNanos.add(System.nanoTime() - start);
+            permits.release();
+        }
+    }
+
+    private boolean succeeded(Future<Boolean> result) {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Accumulates time spent in each named phase across all symbols.
+     */
+    public static class PhaseTimings {
+        private final Map<String, LongAdder> nanosByPhase = new ConcurrentHashMap<>();
+
+        public <T> T time(String phase, Supplier<T> action) {
+            long start = System.nanoTime();
+            try {
+                return action.get();
+            } finally {
+                nanosByPhase.computeIfAbsent(phase, key -> new LongAdder()).add(System.nanoTime() - start);
+            }
+        }
+
+        public void time(String phase, Runnable action) {
+            time(phase, () -> {
+                action.run();
+                return null;
+            });
+        }
+
+        Map<String, Long> snapshotMillis() {
+            Map<String, Long> millis = new TreeMap<>();
+            nanosByPhase.forEach((phase, nanos) -> millis.put(phase, TimeUnit.NANOSECONDS.toMillis(nanos.sum())));
+            return Collections.unmodifiableMap(millis);
+        }
+    }
+
+    /**
+     * Outcome of a refresh run. Phase times are cumulative across symbols, while the wall time is end to end.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class RefreshReport {
+        private final int stockCount;
+        private final int failureCount;
+        private final double totalValue;
+        private final long wallMillis;
+        private final long serialEquivalentMillis;
+        private final Map<String, Long> phaseMillis;
+
+        public double getSpeedup() {
+            return wallMillis == 0 ? 1.0 : (double) serialEquivalentMillis / wallMillis;
+        }
+    }
+}
@@ -1,35 +1,86 @@
 package com.thompson.bullrun.services;
 
 import com.thompson.bullrun.entities.StockEntity;
+import com.thompson.bullrun.entities.StockSummary;
 import com.thompson.bullrun.repositories.StockRepository;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 public class StockService {
 
     private final StockRepository stockRepository;
+    private final MongoTemplate mongoTemplate;
+    private final PnlTracker pnlTracker;
 
-    public StockService(StockRepository stockRepository) {
+    public StockService(StockRepository stockRepository, MongoTemplate mongoTemplate, PnlTracker pnlTracker) {
         this.stockRepository = stockRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.pnlTracker = pnlTracker;
     }
 
-    public List<StockEntity> getAllStocks() {
-        return stockRepository.findAll();
+    /**
+     * Returns a summary of every holding. Mongo only sends back the selected fields.
+     *
+     * @param fields fields to include, or null/empty for all {@link StockSummary#FIELDS}
+     * @throws IllegalArgumentException if a field cannot be selected
+     */
+    public List<StockSummary> getStockSummaries(Collection<String> fields) {
+        return mongoTemplate.query(StockEntity.class)
+                .as(StockSummary.class)
+                .matching(summaryQuery(fields))
+                .all();
+    }
+
+    /**
+     * Same as {@link #getStockSummaries(Collection)}, read lazily from a cursor. The stream must be closed.
+     */
+    public Stream<StockSummary> streamStockSummaries(Collection<String> fields) {
+        return mongoTemplate.query(StockEntity.class)
+                .as(StockSummary.class)
+                .matching(summaryQuery(fields))
+                .stream();
+    }
+
+    /**
+     * @throws IllegalArgumentException if any of the fields is not a {@link StockSummary} field
+     */
+    public void requireSelectableFields(Collection<String> fields) {
+        if (fields == null) {
+            return;
+        }
+        for (String field : fields) {
+            if (!StockSummary.FIELDS.contains(field)) {
+                throw new IllegalArgumentException("Unknown field: " + field + ". Selectable fields: " + StockSummary.FIELDS);
+            }
+        }
+    }
+
+    private Query summaryQuery(Collection<String> fields) {
+        Query query = new Query();
+        if (fields == null || fields.isEmpty()) {
+            query.fields().include(StockSummary.FIELDS.toArray(String[]::new)).exclude("_id");
+            return query;
+        }
+        requireSelectableFields(fields);
+        query.fields().include(fields.toArray(String[]::new)).exclude("_id");
+        return query;
     }
 
     public void deleteStockBySymbol(String symbol) {
-        Optional<StockEntity> stock = stockRepository.findBySymbol(symbol);
-        if (stock.isPresent()) {
-            log.info("Deleting stock with symbol: {}", stock.get().getSymbol());
-            stockRepository.deleteBySymbol(symbol);
-            log.info("Stock with symbol: {} deleted successfully", stock.get().getSymbol());
+        if (stockRepository.deleteBySymbol(symbol) > 0) {
+            pnlTracker.refreshHolding(symbol);
+            log.info("Stock with symbol: {} deleted successfully", symbol);
         } else {
-            log.warn("Stock with id: {} not found", symbol);
+            log.warn("Stock with symbol: {} not found", symbol);
         }
     }
 
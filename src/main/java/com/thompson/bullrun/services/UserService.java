@@ -1,35 +1,65 @@
 package com.thompson.bullrun.services;
 
+import com.thompson.bullrun.common.Downsampler;
+import com.thompson.bullrun.entities.PortfolioHistoryEntity;
+import com.thompson.bullrun.entities.PortfolioHistoryPage;
+import com.thompson.bullrun.entities.PortfolioRollupEntity;
+import com.thompson.bullrun.entities.PortfolioSeries;
 import com.thompson.bullrun.entities.PortfolioValue;
+import com.thompson.bullrun.entities.RollupGranularity;
 import com.thompson.bullrun.entities.UserEntity;
+import com.thompson.bullrun.repositories.PortfolioHistoryRepository;
 import com.thompson.bullrun.repositories.UserRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * UserService is a service class that provides methods to interact with the UserRepository.
- * It provides methods to get a list of users, get a specific user, and create a user.
+ * It provides methods to get a list of users, get a specific user, create a user, and read the portfolio value history.
  */
 @Slf4j
 @Service
 public class UserService {
 
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime LATEST = LocalDateTime.of(9999, 12, 31, 0, 0);
+    private static final char CURSOR_SEPARATOR = '_';
+
     private final UserRepository userRepository;
+    private final PortfolioHistoryRepository portfolioHistoryRepository;
+    private final PortfolioRollupService portfolioRollupService;
+    private final int maxHistoryPoints;
 
     /**
      * Constructor for UserService.
      *
-     * @param userRepository UserRepository object dependency.
+     * @param userRepository             UserRepository object dependency.
+     * @param portfolioHistoryRepository PortfolioHistoryRepository object dependency.
+     * @param portfolioRollupService     PortfolioRollupService object dependency.
+     * @param maxHistoryPoints           Upper bound and default for the number of history points returned per call.
      */
     @Autowired
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, PortfolioHistoryRepository portfolioHistoryRepository,
+                       PortfolioRollupService portfolioRollupService,
+                       @Value("${portfolioHistory.maxLimit:5000}") int maxHistoryPoints) {
         this.userRepository = userRepository;
+        this.portfolioHistoryRepository = portfolioHistoryRepository;
+        this.portfolioRollupService = portfolioRollupService;
+        this.maxHistoryPoints = maxHistoryPoints;
     }
 
     /**
@@ -49,6 +79,15 @@ public class UserService {
         }
     }
 
+    /**
+     * Streams all users from a cursor instead of loading them into a list. The stream must be closed.
+     *
+     * @return Stream of UserEntity objects.
+     */
+    public Stream<UserEntity> streamUsers() {
+        return userRepository.streamAllBy();
+    }
+
     /**
      * Retrieves a specific user by ID.
      *
@@ -93,21 +132,172 @@ public class UserService {
         }
     }
 
-    public List<PortfolioValue> pullPortfolioValueOverTime() {
-        log.info("Pulling portfolio value over time");
+    /**
+     * Retrieves portfolio total values recorded in [from, to), oldest first. Without a lower bound these are the most
+     * recent points, so a long history never hides the latest values behind the limit.
+     *
+     * @param from  Inclusive lower bound, or null for the most recent points before the upper bound.
+     * @param to    Exclusive upper bound, or null for no upper bound.
+     * @param limit Maximum number of points, or null for portfolioHistory.maxLimit.
+     * @return List of PortfolioValue objects. Returns an empty list if the history cannot be read.
+     * @throws IllegalArgumentException if the limit is out of range.
+     */
+    public List<PortfolioValue> pullPortfolioValueOverTime(LocalDateTime from, LocalDateTime to, Integer limit) {
+        log.info("Pulling portfolio value over time from {} to {} (limit {})", from, to, limit);
         try {
-            List<PortfolioValue> portfolioValues = new ArrayList<>();
-            List<UserEntity> users = userRepository.findAll();
-            for (UserEntity user : users) {
-                String date = String.valueOf(user.getDate());
-                Double totalValue = user.getTotalValue();
-                portfolioValues.add(new PortfolioValue(date, totalValue));
-            }
-            log.info("Successfully pulled portfolio value over time");
+            List<PortfolioValue> portfolioValues = from == null
+                    ? getLatestPortfolioValues(to, limit)
+                    : getPortfolioHistory(from, to, limit, null).getPoints();
+            log.info("Successfully pulled {} portfolio values over time", portfolioValues.size());
             return portfolioValues;
-        } catch (Exception e) {
+        } catch (DataAccessException e) {
             log.error("Failed to pull portfolio value over time", e);
             return Collections.emptyList();
         }
     }
+
+    private List<PortfolioValue> getLatestPortfolioValues(LocalDateTime to, Integer limit) {
+        List<PortfolioHistoryEntity> rows = portfolioHistoryRepository.findByDateLessThanOrderByDateDescIdDesc(
+                to == null ? LATEST : to, Limit.of(pageSize(limit)));
+        List<PortfolioValue> points = new ArrayList<>(rows.size());
+        for (int i = rows.size() - 1; i >= 0; i--) {
+            points.add(new PortfolioValue(String.valueOf(rows.get(i).getDate()), rows.get(i).getTotalValue()));
+        }
+        return points;
+    }
+
+    /**
+     * Streams every portfolio total value recorded in [from, to), oldest first, from a cursor. The stream must be closed.
+     *
+     * @param from Inclusive lower bound, or null for the beginning of the history.
+     * @param to   Exclusive upper bound, or null for no upper bound.
+     * @return Stream of PortfolioValue objects.
+     */
+    public Stream<PortfolioValue> streamPortfolioValues(LocalDateTime from, LocalDateTime to) {
+        return portfolioHistoryRepository.streamByDateGreaterThanEqualAndDateLessThanOrderByDateAsc(
+                        from == null ? EARLIEST : from, to == null ? LATEST : to)
+                .map(row -> new PortfolioValue(String.valueOf(row.getDate()), row.getTotalValue()));
+    }
+
+    /**
+     * Retrieves at most maxPoints portfolio values in [from, to) that keep the shape of the full series.
+     * When the daily totals do not fit, the coarsest of the yearly, monthly and weekly rollups that still has at least
+     * maxPoints periods is read (falling back to the daily totals), and LTTB downsampling picks the points to return.
+     * The rows read are therefore bounded by a small multiple of maxPoints however much history has accumulated.
+     *
+     * @param from      Inclusive lower bound, or null for the beginning of the history.
+     * @param to        Exclusive upper bound, or null for no upper bound.
+     * @param maxPoints Point budget of the caller, e.g. the chart width in pixels.
+     * @return The series and the granularity it was read at.
+     * @throws IllegalArgumentException if maxPoints is out of range.
+     */
+    public PortfolioSeries getPortfolioValueSeries(LocalDateTime from, LocalDateTime to, int maxPoints) {
+        if (maxPoints < 3 || maxPoints > maxHistoryPoints) {
+            throw new IllegalArgumentException("maxPoints must be between 3 and " + maxHistoryPoints);
+        }
+        LocalDateTime lower = from == null ? EARLIEST : from;
+        LocalDateTime upper = to == null ? LATEST : to;
+
+        long dailyPoints = portfolioRollupService.estimateDailyPoints(lower, upper);
+        if (dailyPoints <= maxPoints) {
+            return new PortfolioSeries("DAY", getPortfolioHistory(lower, upper, maxPoints, null).getPoints());
+        }
+
+        RollupGranularity granularity = null;
+        for (RollupGranularity candidate : List.of(RollupGranularity.YEAR, RollupGranularity.MONTH, RollupGranularity.WEEK)) {
+            if (portfolioRollupService.countRollups(candidate, lower, upper) >= maxPoints) {
+                granularity = candidate;
+                break;
+            }
+        }
+
+        long[] dates;
+        double[] values;
+        if (granularity == null) {
+            List<PortfolioHistoryEntity> rows = portfolioHistoryRepository.findByDateGreaterThanEqualAndDateLessThanOrderByDateAscIdAsc(
+                    lower, upper, Limit.of((int) Math.min(dailyPoints, Integer.MAX_VALUE)));
+            dates = new long[rows.size()];
+            values = new double[rows.size()];
+            for (int i = 0; i < rows.size(); i++) {
+                dates[i] = toEpochMillis(rows.get(i).getDate());
+                values[i] = rows.get(i).getTotalValue();
+            }
+        } else {
+            List<PortfolioRollupEntity> rollups = portfolioRollupService.findRollups(granularity, lower, upper);
+            dates = new long[rollups.size()];
+            values = new double[rollups.size()];
+            for (int i = 0; i < rollups.size(); i++) {
+                dates[i] = toEpochMillis(rollups.get(i).getPeriodStart());
+                values[i] = rollups.get(i).getClose();
+            }
+        }
+
+        int[] kept = Downsampler.lttb(dates, values, dates.length, maxPoints);
+        List<PortfolioValue> points = new ArrayList<>(kept.length);
+        for (int index : kept) {
+            points.add(new PortfolioValue(String.valueOf(LocalDateTime.ofInstant(Instant.ofEpochMilli(dates[index]), ZoneId.systemDefault())), values[index]));
+        }
+        String granularityName = granularity == null ? "DAY" : granularity.name();
+        log.info("Downsampled {} {} points to {} (budget {})", dates.length, granularityName, points.size(), maxPoints);
+        return new PortfolioSeries(granularityName, points);
+    }
+
+    private static long toEpochMillis(LocalDateTime date) {
+        return date.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Retrieves one page of portfolio total values recorded in [from, to), oldest first.
+     * The cursor is the date and id of the last point returned, so points recorded at the same time are never skipped
+     * across a page boundary.
+     *
+     * @param from   Inclusive lower bound, or null for the beginning of the history. Ignored when a cursor is given.
+     * @param to     Exclusive upper bound, or null for no upper bound.
+     * @param limit  Page size, or null for portfolioHistory.maxLimit.
+     * @param cursor nextCursor of the previous page, or null for the first page.
+     * @return The page and the cursor of the next page, if any.
+     * @throws IllegalArgumentException if the limit or cursor is invalid.
+     */
+    public PortfolioHistoryPage getPortfolioHistory(LocalDateTime from, LocalDateTime to, Integer limit, String cursor) {
+        int pageSize = pageSize(limit);
+        LocalDateTime upper = to == null ? LATEST : to;
+        // Fetch one extra point to learn whether another page exists
+        List<PortfolioHistoryEntity> rows;
+        if (cursor == null) {
+            rows = portfolioHistoryRepository.findByDateGreaterThanEqualAndDateLessThanOrderByDateAscIdAsc(
+                    from == null ? EARLIEST : from, upper, Limit.of(pageSize + 1));
+        } else {
+            int separator = cursor.indexOf(CURSOR_SEPARATOR);
+            // Cursors issued before the id was added hold only the date
+            LocalDateTime afterDate = parseCursorDate(separator < 0 ? cursor : cursor.substring(0, separator), cursor);
+            String afterId = separator < 0 ? null : cursor.substring(separator + 1);
+            rows = portfolioHistoryRepository.findAfter(afterDate, afterId, upper, pageSize + 1);
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<PortfolioHistoryEntity> page = hasMore ? rows.subList(0, pageSize) : rows;
+        List<PortfolioValue> points = new ArrayList<>(page.size());
+        for (PortfolioHistoryEntity row : page) {
+            points.add(new PortfolioValue(String.valueOf(row.getDate()), row.getTotalValue()));
+        }
+        PortfolioHistoryEntity last = hasMore ? page.get(page.size() - 1) : null;
+        String nextCursor = last == null ? null : last.getDate() + CURSOR_SEPARATOR + last.getId();
+        return new PortfolioHistoryPage(points, nextCursor);
+    }
+
+    private int pageSize(Integer limit) {
+        int pageSize = limit == null ? maxHistoryPoints : limit;
+        if (pageSize < 1 || pageSize > maxHistoryPoints) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxHistoryPoints);
+        }
+        return pageSize;
+    }
+
+    private LocalDateTime parseCursorDate(String date, String cursor) {
+        try {
+            return LocalDateTime.parse(date);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
 }
@@ -0,0 +1,62 @@
+package com.thompson.bullrun.common;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DownsamplerTest {
+
+    @Test
+    void lttb_returnsAllIndicesWhenSeriesFits() {
+        long[] x = {1, 2, 3, 4};
+        double[] y = {5, 6, 7, 8};
+
+        assertArrayEquals(new int[]{0, 1, 2, 3}, Downsampler.lttb(x, y, 4, 10));
+    }
+
+    @Test
+    void lttb_keepsEndpointsAndThresholdPoints() {
+        int length = 1000;
+        long[] x = new long[length];
+        double[] y = new double[length];
+        for (int i = 0; i < length; i++) {
+            x[i] = 1_700_000_000_000L + i * 86_400_000L;
+            y[i] = Math.sin(i / 20.0);
+        }
+
+        int[] kept = Downsampler.lttb(x, y, length, 50);
+
+        assertEquals(50, kept.length);
+        assertEquals(0, kept[0]);
+        assertEquals(length - 1, kept[kept.length - 1]);
+        for (int i = 1; i < kept.length; i++) {
+            assertTrue(kept[i] > kept[i - 1]);
+        }
+    }
+
+    @Test
+    void lttb_keepsSpike() {
+        long[] x = new long[100];
+        double[] y = new double[100];
+        for (int i = 0; i < 100; i++) {
+            x[i] = i;
+        }
+        y[37] = 1000;
+
+        int[] kept = Downsampler.lttb(x, y, 100, 10);
+
+        boolean spikeKept = false;
+        for (int index : kept) {
+            spikeKept |= index == 37;
+        }
+        assertTrue(spikeKept);
+    }
+
+    @Test
+    void lttb_rejectsThresholdBelowThree() {
+        assertThrows(IllegalArgumentException.class, () -> Downsampler.lttb(new long[5], new double[5], 5, 2));
+    }
+}
@@ -0,0 +1,41 @@
+package com.thompson.bullrun.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PriceFormatterTest {
+
+    @Test
+    void format_groupsThousandsAndKeepsTwoDecimals() {
+        assertEquals("0.00", PriceFormatter.format(0));
+        assertEquals("1,234,567.89", PriceFormatter.format(1_234_567.891));
+        assertEquals("1,000.00", PriceFormatter.format(999.995));
+        assertEquals("-1,234.57", PriceFormatter.format(-1_234.565));
+    }
+
+    @Test
+    void format_matchesDecimalFormat() {
+        DecimalFormat decimalFormat = new DecimalFormat("#,##0.00", new DecimalFormatSymbols(Locale.US));
+        decimalFormat.setRoundingMode(RoundingMode.HALF_UP);
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            double price = i % 2 == 0 ? random.nextInt(100_000_000) / 1000.0 + 0.005 : random.nextDouble() * 100_000;
+            assertEquals(decimalFormat.format(price), PriceFormatter.format(price), "price " + price);
+        }
+        assertEquals(decimalFormat.format(2.675), PriceFormatter.format(2.675));
+        assertEquals(decimalFormat.format(Double.NaN), PriceFormatter.format(Double.NaN));
+    }
+
+    @Test
+    void formatMicros_roundsHalfUp() {
+        assertEquals("1,234,567.90", PriceFormatter.formatMicros(1_234_567_895_000L));
+        assertEquals("-0.01", PriceFormatter.formatMicros(-5_000));
+    }
+}
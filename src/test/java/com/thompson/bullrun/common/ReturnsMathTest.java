@@ -0,0 +1,64 @@
+package com.thompson.bullrun.common;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReturnsMathTest {
+
+    private static final double EPSILON = 1e-12;
+
+    @Test
+    void alignCloses_carriesPricesForwardAndLeavesDaysBeforeTheFirstBarEmpty() {
+        int[] axis = {1, 2, 3, 4, 5};
+
+        double[] aligned = ReturnsMath.alignCloses(axis, new int[]{2, 4}, new double[]{10, 12});
+
+        assertTrue(Double.isNaN(aligned[0]));
+        assertArrayEquals(new double[]{10, 10, 12, 12}, new double[]{aligned[1], aligned[2], aligned[3], aligned[4]});
+    }
+
+    @Test
+    void compound_chainLinksDailyReturns() {
+        double[] returns = ReturnsMath.dailyReturns(new double[]{Double.NaN, 100, 110, 99});
+
+        assertEquals(2, ReturnsMath.observations(returns));
+        assertEquals(-0.01, ReturnsMath.compound(returns), EPSILON);
+    }
+
+    @Test
+    void maxDrawdown_measuresTheDeepestDeclineFromAPeak() {
+        double[] returns = ReturnsMath.dailyReturns(new double[]{100, 120, 90, 130, 117});
+
+        assertEquals(0.25, ReturnsMath.maxDrawdown(returns), EPSILON);
+    }
+
+    @Test
+    void beta_ofAScaledBenchmarkIsTheScale() {
+        double[] benchmark = {Double.NaN, 0.01, -0.02, 0.015, 0.003};
+        double[] returns = new double[benchmark.length];
+        for (int i = 0; i < benchmark.length; i++) {
+            returns[i] = 2 * benchmark[i];
+        }
+
+        assertEquals(2, ReturnsMath.beta(returns, benchmark), EPSILON);
+    }
+
+    @Test
+    void rollingVolatility_matchesFullVolatilityOfEachWindow() {
+        double[] returns = {Double.NaN, 0.01, -0.02, 0.015, 0.003, -0.007};
+
+        double[] rolling = ReturnsMath.rollingVolatility(returns, 3);
+
+        assertTrue(Double.isNaN(rolling[2]));
+        assertEquals(ReturnsMath.volatility(new double[]{0.01, -0.02, 0.015}), rolling[3], EPSILON);
+        assertEquals(ReturnsMath.volatility(new double[]{0.015, 0.003, -0.007}), rolling[5], EPSILON);
+    }
+
+    @Test
+    void sharpe_isUndefinedWithoutVariation() {
+        assertTrue(Double.isNaN(ReturnsMath.sharpe(new double[]{0.01, 0.01, 0.01}, 0)));
+    }
+}
@@ -0,0 +1,46 @@
+package com.thompson.bullrun.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ValuationKernelTest {
+
+    @Test
+    void toMicros_roundsHalfUpAtTheShortestDecimal() {
+        // 1.005 and 2.675 are slightly below the tie in binary; BigDecimal.valueOf still rounds them up
+        assertEquals(1_010_000, ValuationKernel.toMicros(1.005, 2));
+        assertEquals(2_680_000, ValuationKernel.toMicros(2.675, 2));
+        assertEquals(-1_240_000, ValuationKernel.toMicros(-1.235, 2));
+        assertEquals(123_456_789, ValuationKernel.toMicros(123.456789, 6));
+    }
+
+    @Test
+    void matchesBigDecimalForRandomPricesAndQuantities() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            double price = i % 2 == 0 ? random.nextInt(100_000_000) / 1000.0 : random.nextDouble() * 10_000;
+            int quantity = random.nextInt(100_000);
+
+            BigDecimal expectedPrice = BigDecimal.valueOf(price).setScale(2, RoundingMode.HALF_UP);
+            BigDecimal expectedValue = BigDecimal.valueOf(price).multiply(BigDecimal.valueOf(quantity)).setScale(2, RoundingMode.HALF_UP);
+            long priceMicros = ValuationKernel.toMicros(price, 2);
+
+            assertEquals(expectedPrice.doubleValue(), ValuationKernel.toDouble(priceMicros), "price " + price);
+            assertEquals(expectedPrice.multiply(BigDecimal.valueOf(quantity)).doubleValue(),
+                    ValuationKernel.toDouble(ValuationKernel.value(priceMicros, quantity, 2)), "rounded price " + price);
+            assertEquals(expectedValue.doubleValue(), ValuationKernel.toDouble(ValuationKernel.value(price, quantity, 2)), "value " + price);
+        }
+    }
+
+    @Test
+    void rejectsNonFiniteValuesAndOverflow() {
+        assertThrows(NumberFormatException.class, () -> ValuationKernel.toMicros(Double.NaN, 2));
+        assertThrows(ArithmeticException.class, () -> ValuationKernel.value(Long.MAX_VALUE / 2, 3, 2));
+    }
+}
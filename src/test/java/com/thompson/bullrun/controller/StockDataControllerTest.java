@@ -1,5 +1,6 @@
 package com.thompson.bullrun.controller;
 
+import com.thompson.bullrun.common.TtlCache;
 import com.thompson.bullrun.services.DailyStockDataService;
 import com.thompson.bullrun.services.StockService;
 import com.thompson.bullrun.entities.StockEntity;
@@ -13,9 +14,13 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class StockDataControllerTest {
 
@@ -84,4 +89,23 @@ class StockDataControllerTest {
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals("Shares owned updated successfully", response.getBody());
     }
-}
\ No newline at end of file
+
+    @Test
+    void isCacheable_rejectsErrorBodiesSentWithOk() {
+        TtlCache<String, ResponseEntity<String>> cache = new TtlCache<>(10);
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        ResponseEntity<String> rateLimited = ResponseEntity.ok("{\"code\":429,\"message\":\"You have run out of API credits\",\"status\":\"error\"}");
+
+        for (int i = 0; i < 2; i++) {
+            cache.get("stockPrice:AAPL", Duration.ofHours(1), () -> {
+                upstreamCalls.incrementAndGet();
+                return rateLimited;
+            }, StockDataController::isCacheable);
+        }
+
+        assertEquals(2, upstreamCalls.get());
+        assertFalse(StockDataController.isCacheable(rateLimited));
+        assertTrue(StockDataController.isCacheable(ResponseEntity.ok("{\"price\":\"189.84\"}")));
+        assertFalse(StockDataController.isCacheable(ResponseEntity.status(HttpStatus.NOT_FOUND).body("Ticker not found for symbol: XYZ")));
+    }
+}
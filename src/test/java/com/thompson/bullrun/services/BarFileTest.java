@@ -0,0 +1,73 @@
+package com.thompson.bullrun.services;
+
+import com.thompson.bullrun.entities.BarSeries;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BarFileTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void put_keepsBarsInDayOrderAndReplacesSameDay() throws IOException {
+        BarFile file = BarFile.open(directory.resolve("AAPL.bars"));
+
+        file.put(10, 1, 2, 0.5, 1.5, 100);
+        file.put(12, 3, 4, 2.5, 3.5, 300);
+        file.put(11, 2, 3, 1.5, 2.5, 200);
+        file.put(12, 3, 4, 2.5, 3.9, 350);
+
+        BarSeries series = file.read("AAPL", 0, Integer.MAX_VALUE);
+        assertArrayEquals(new int[]{10, 11, 12}, series.getDays());
+        assertArrayEquals(new double[]{1.5, 2.5, 3.9}, series.getClose());
+        assertArrayEquals(new long[]{100, 200, 350}, series.getVolume());
+    }
+
+    @Test
+    void scan_visitsOnlyTheInclusiveRange() throws IOException {
+        BarFile file = BarFile.open(directory.resolve("AAPL.bars"));
+        for (int day = 1; day <= 10; day++) {
+            file.put(day, day, day, day, day, day);
+        }
+        List<Integer> visited = new ArrayList<>();
+
+        int count = file.scan(3, 6, (day, open, high, low, close, volume) -> visited.add(day));
+
+        assertEquals(4, count);
+        assertEquals(List.of(3, 4, 5, 6), visited);
+        assertEquals(0, file.read("AAPL", 11, 20).size());
+    }
+
+    @Test
+    void open_readsBackAFileGrownPastItsInitialCapacity() throws IOException {
+        Path path = directory.resolve("MSFT.bars");
+        BarFile file = BarFile.open(path);
+        for (int day = 0; day < 1000; day++) {
+            file.put(day, 0, 0, 0, day, 0);
+        }
+
+        BarSeries series = BarFile.open(path).read("MSFT", 0, Integer.MAX_VALUE);
+
+        assertEquals(1000, series.size());
+        assertEquals(999.0, series.getClose()[999]);
+    }
+
+    @Test
+    void open_rejectsFilesOfAnotherFormat() throws IOException {
+        Path path = directory.resolve("BAD.bars");
+        Files.write(path, new byte[BarFile.HEADER_BYTES + BarFile.RECORD_BYTES]);
+
+        assertThrows(IOException.class, () -> BarFile.open(path));
+    }
+}
@@ -0,0 +1,70 @@
+package com.thompson.bullrun.services;
+
+import com.thompson.bullrun.entities.BarSeries;
+import com.thompson.bullrun.entities.DailyBarBucketEntity;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DailyBarStoreTest {
+
+    @Test
+    void toSeries_ordersDaysAcrossBucketsAndKeepsColumnsAligned() {
+        // Buckets out of month order, each with days in refresh rather than day order
+        List<DailyBarBucketEntity> buckets = List.of(
+                bucket("AAPL:1970-02", 40, 32, 35),
+                bucket("AAPL:1970-01", 20, 3, 31));
+
+        BarSeries series = DailyBarStore.toSeries("AAPL", buckets, 0, 100);
+
+        assertEquals("AAPL", series.getSymbol());
+        assertArrayEquals(new int[]{3, 20, 31, 32, 35, 40}, series.getDays());
+        assertArrayEquals(new double[]{3.5, 20.5, 31.5, 32.5, 35.5, 40.5}, series.getClose());
+        assertArrayEquals(new double[]{4, 21, 32, 33, 36, 41}, series.getHigh());
+        assertArrayEquals(new long[]{300, 2000, 3100, 3200, 3500, 4000}, series.getVolume());
+    }
+
+    @Test
+    void toSeries_includesBothRangeEdges() {
+        List<DailyBarBucketEntity> buckets = List.of(
+                bucket("AAPL:1970-02", 33, 31, 32),
+                bucket("AAPL:1970-01", 30, 29, 28));
+
+        BarSeries series = DailyBarStore.toSeries("AAPL", buckets, 29, 32);
+
+        assertArrayEquals(new int[]{29, 30, 31, 32}, series.getDays());
+        assertArrayEquals(new double[]{29, 30, 31, 32}, series.getOpen());
+    }
+
+    @Test
+    void toSeries_isEmptyWhenNoDayIsInRange() {
+        BarSeries series = DailyBarStore.toSeries("AAPL", List.of(bucket("AAPL:1970-01", 5, 6)), 10, 20);
+
+        assertEquals(0, series.size());
+        assertEquals(0, series.getClose().length);
+        assertEquals(0, DailyBarStore.toSeries("AAPL", List.of(), 0, 100).size());
+    }
+
+    /**
+     * A bucket whose bar for day d opens at d, closes at d + 0.5, has a high of d + 1 and trades d * 100 shares.
+     */
+    private static DailyBarBucketEntity bucket(String id, int... days) {
+        double[] open = new double[days.length];
+        double[] high = new double[days.length];
+        double[] low = new double[days.length];
+        double[] close = new double[days.length];
+        long[] volume = new long[days.length];
+        for (int i = 0; i < days.length; i++) {
+            open[i] = days[i];
+            high[i] = days[i] + 1;
+            low[i] = days[i] - 1;
+            close[i] = days[i] + 0.5;
+            volume[i] = days[i] * 100L;
+        }
+        String symbol = id.substring(0, id.indexOf(':'));
+        return new DailyBarBucketEntity(id, symbol, id.substring(id.indexOf(':') + 1), days, open, high, low, close, volume);
+    }
+}
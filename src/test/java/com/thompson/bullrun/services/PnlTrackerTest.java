@@ -0,0 +1,60 @@
+package com.thompson.bullrun.services;
+
+import com.thompson.bullrun.entities.HoldingPnl;
+import com.thompson.bullrun.entities.PortfolioPnl;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PnlTrackerTest {
+
+    private final PnlTracker tracker = new PnlTracker(null);
+
+    @Test
+    void onPrice_updatesTheHoldingAndPortfolioTotals() {
+        tracker.apply("AAPL", 10, 150.0, 170.0);
+        tracker.apply("MSFT", 5, 300.0, 400.0);
+
+        tracker.onPrice("AAPL", 180.0);
+
+        HoldingPnl apple = tracker.getHolding("AAPL").orElseThrow();
+        assertEquals(1800.0, apple.getMarketValue());
+        assertEquals(300.0, apple.getUnrealizedGain());
+        assertEquals(0.2, apple.getUnrealizedGainPercent(), 1e-12);
+        assertEquals(100.0, apple.getDailyChange());
+
+        PortfolioPnl portfolio = tracker.getPortfolio(false);
+        assertEquals(2, portfolio.getHoldingCount());
+        assertEquals(3800.0, portfolio.getMarketValue());
+        assertEquals(3000.0, portfolio.getCostValue());
+        assertEquals(800.0, portfolio.getUnrealizedGain());
+        assertEquals(100.0, portfolio.getDailyChange());
+        assertNull(portfolio.getHoldings());
+    }
+
+    @Test
+    void apply_keepsTheLatestPriceWhenSharesChangeAndRemovesSoldHoldings() {
+        tracker.apply("AAPL", 10, 150.0, 170.0);
+        tracker.onPrice("AAPL", 180.0);
+
+        tracker.apply("AAPL", 20, 150.0, 999.0);
+        assertEquals(3600.0, tracker.getPortfolio(false).getMarketValue());
+        assertEquals(170.0, tracker.getHolding("AAPL").orElseThrow().getPreviousClose());
+
+        tracker.apply("AAPL", 0, 0, 0);
+        PortfolioPnl portfolio = tracker.getPortfolio(true);
+        assertEquals(0, portfolio.getHoldingCount());
+        assertEquals(0.0, portfolio.getMarketValue());
+        assertTrue(portfolio.getHoldings().isEmpty());
+    }
+
+    @Test
+    void onPrice_ignoresSymbolsThatAreNotHeld() {
+        tracker.onPrice("TSLA", 250.0);
+
+        assertEquals(0, tracker.getPortfolio(false).getHoldingCount());
+        assertTrue(tracker.getHolding("TSLA").isEmpty());
+    }
+}